@@ -17,12 +17,14 @@
 package net.fabricmc.meta;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -39,6 +41,7 @@ import org.slf4j.LoggerFactory;
 import net.fabricmc.meta.data.VersionDatabase;
 import net.fabricmc.meta.utils.McObfuscationChecker;
 import net.fabricmc.meta.utils.Reference;
+import net.fabricmc.meta.utils.UpstreamClient;
 import net.fabricmc.meta.web.WebServer;
 
 public class FabricMeta {
@@ -54,6 +57,7 @@ public class FabricMeta {
 	private static final Map<String, String> config = new HashMap<>();
 	private static boolean configInitialized;
 	private static URL heartbeatUrl; // URL pinged with every successful update()
+	private static final Duration HEARTBEAT_TIMEOUT = Duration.ofSeconds(5);
 
 	public static void main(String[] args) {
 		Path configFile = Paths.get("config.json");
@@ -82,17 +86,34 @@ public class FabricMeta {
 
 		LOGGER.info("Starting with local maven {}", Reference.LOCAL_FABRIC_MAVEN_URL);
 
-		update(true);
+		// routes have to be registered before the first database is published for its responses to be pre-rendered
+		WebServer.create();
+
+		// serve the last known state right away if possible and refresh it in the background
+		VersionDatabase snapshot = VersionDatabase.loadSnapshot();
+
+		if (snapshot != null) {
+			WebServer.prepareCachedResponses(snapshot, null);
+			database = snapshot;
+		} else {
+			update(true);
+		}
 
 		ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1);
-		executorService.scheduleWithFixedDelay(() -> update(false), 1, 1, TimeUnit.MINUTES);
+		executorService.scheduleWithFixedDelay(() -> update(false), snapshot != null ? 0 : 1, 1, TimeUnit.MINUTES);
 
 		WebServer.start();
 	}
 
 	private static void update(boolean initial) {
 		try {
-			database = VersionDatabase.generate(initial);
+			VersionDatabase newDatabase = VersionDatabase.generate(database, initial);
+
+			if (newDatabase != database) { // unchanged upstream keeps the current database with its derived data
+				WebServer.prepareCachedResponses(newDatabase, database);
+				database = newDatabase;
+			}
+
 			FabricMeta.MC_OBFUSCATION_CHECKER.save();
 			updateHeartbeat();
 		} catch (Throwable t) {
@@ -111,6 +132,7 @@ public class FabricMeta {
 		}
 
 		configInitialized = true;
+		WebServer.create();
 		update(false);
 	}
 
@@ -118,14 +140,14 @@ public class FabricMeta {
 		if (heartbeatUrl == null) return;
 
 		try {
-			HttpURLConnection conn = (HttpURLConnection) heartbeatUrl.openConnection();
-			conn.setRequestMethod("HEAD");
-			conn.setConnectTimeout(2000);
-			conn.setReadTimeout(5000);
-
-			int status = conn.getResponseCode();
-
-			if (status != HttpURLConnection.HTTP_OK) {
+			// short timeout as before, a slow monitoring endpoint mustn't hold up the update loop
+			HttpRequest request = UpstreamClient.newRequest(heartbeatUrl.toString())
+					.timeout(HEARTBEAT_TIMEOUT)
+					.method("HEAD", HttpRequest.BodyPublishers.noBody())
+					.build();
+			int status = UpstreamClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+
+			if (status != 200) {
 				LOGGER.warn("heartbeat request failed with status {}", status);
 			}
 		} catch (IOException e) {
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.fabricmc.meta.utils.AtomicFiles;
+import net.fabricmc.meta.utils.UpstreamResource;
+
+/**
+ * Gzipped binary file holding the upstream content a database was built from, keyed by url.
+ *
+ * <p>Storing the inputs instead of the models keeps the format independent of the model classes, rebuilding from them
+ * only takes a few milliseconds.
+ */
+public final class DatabaseSnapshot {
+	private static final int MAGIC = 0x464d4442; // FMDB
+	private static final int FORMAT_VERSION = 1;
+
+	private DatabaseSnapshot() { }
+
+	public static void write(Path file, List<UpstreamResource> sources) throws IOException {
+		AtomicFiles.write(file, tmpFile -> {
+			try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+				os.writeInt(MAGIC);
+				os.writeInt(FORMAT_VERSION);
+				os.writeInt(sources.size());
+
+				for (UpstreamResource source : sources) {
+					byte[] content = source.getContent();
+					if (content == null) throw new IllegalStateException("no content for " + source.getUrl());
+
+					os.writeUTF(source.getUrl());
+					os.writeInt(content.length);
+					os.write(content);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sets the content of all sources from the snapshot.
+	 *
+	 * @return whether the snapshot exists and has content for every source
+	 */
+	public static boolean read(Path file, List<UpstreamResource> sources) throws IOException {
+		if (!Files.exists(file)) return false;
+
+		Map<String, byte[]> contents = new HashMap<>();
+
+		try (DataInputStream is = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+			if (is.readInt() != MAGIC) throw new IOException("not a database snapshot: " + file);
+			if (is.readInt() != FORMAT_VERSION) return false; // written by an incompatible version
+
+			int count = is.readInt();
+
+			for (int i = 0; i < count; i++) {
+				String url = is.readUTF();
+				int length = is.readInt();
+				if (length < 0) throw new IOException("invalid content length " + length + " in " + file);
+
+				// not allocated upfront, a corrupt length fails at the end of the file instead of exhausting the heap
+				byte[] content = is.readNBytes(length);
+				if (content.length != length) throw new EOFException("truncated database snapshot: " + file);
+
+				contents.put(url, content);
+			}
+		}
+
+		if (!contents.keySet().containsAll(sources.stream().map(UpstreamResource::getUrl).toList())) {
+			return false; // e.g. different upstream configuration
+		}
+
+		for (UpstreamResource source : sources) {
+			source.setContent(contents.get(source.getUrl()));
+		}
+
+		return true;
+	}
+}
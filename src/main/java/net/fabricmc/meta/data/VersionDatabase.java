@@ -19,6 +19,7 @@ package net.fabricmc.meta.data;
 import static net.fabricmc.meta.utils.Reference.LOCAL_FABRIC_MAVEN_URL;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -27,17 +28,21 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-
-import javax.xml.stream.XMLStreamException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.fabricmc.meta.FabricMeta;
 import net.fabricmc.meta.utils.MinecraftLauncherMeta;
 import net.fabricmc.meta.utils.MinecraftLauncherMeta.Version;
 import net.fabricmc.meta.utils.PomParser;
 import net.fabricmc.meta.utils.Reference;
+import net.fabricmc.meta.utils.UpstreamResource;
 import net.fabricmc.meta.web.models.BaseVersion;
 import net.fabricmc.meta.web.models.LegacyDbDump;
 import net.fabricmc.meta.web.models.MavenBuildGameVersion;
@@ -52,6 +57,8 @@ public class VersionDatabase {
 	private static final PomParser INSTALLER_PARSER = new PomParser(LOCAL_FABRIC_MAVEN_URL + "net/fabricmc/fabric-installer/maven-metadata.xml");
 
 	private static final Set<String> incorrectIntermediaryVersions = new HashSet<>();
+	private static final Path SNAPSHOT_FILE = FabricMeta.CACHE_DIR.resolve("database.snapshot");
+	private static boolean rebuildPending = true;
 	private static final Logger LOGGER = LoggerFactory.getLogger(VersionDatabase.class);
 
 	private Map<String, GameVersionData> gameVersionIndex;
@@ -59,35 +66,140 @@ public class VersionDatabase {
 	private List<MavenVersion> intermediaries;
 	private List<MavenBuildGameVersion> yarns;
 	private List<MavenBuildVersion> loader;
+	private List<MavenBuildVersion> publicLoader;
 	public List<MavenUrlVersion> installer;
 
+	// version -> model lookups for the request paths
+	private Map<String, MavenVersion> intermediaryIndex;
+	private Map<String, MavenBuildVersion> loaderIndex;
+	private Map<String, MavenUrlVersion> installerIndex;
+
+	// data computed from this database, e.g. pre-rendered responses, lives exactly as long as the database itself
+	private final Map<String, Object> derivedData = new ConcurrentHashMap<>();
+
 	private VersionDatabase() { }
 
-	public static VersionDatabase generate(boolean initial) throws IOException, XMLStreamException {
+	/**
+	 * Fetches the upstream metadata and builds a database from it.
+	 *
+	 * @param previous the current database, returned as is if no upstream source changed since it was built
+	 */
+	public static VersionDatabase generate(@Nullable VersionDatabase previous, boolean initial) throws IOException {
 		long start = System.nanoTime();
+
+		List<CompletableFuture<Boolean>> updates = new ArrayList<>();
+		updates.add(MAPPINGS_PARSER.update());
+		updates.add(INTERMEDIARY_PARSER.update());
+		updates.add(LOADER_PARSER.update());
+		updates.add(INSTALLER_PARSER.update());
+		updates.addAll(MinecraftLauncherMeta.update(initial));
+
+		// remember changes until a database got built from them, another source may still fail
+		Throwable failure = null;
+
+		for (CompletableFuture<Boolean> update : updates) {
+			try {
+				rebuildPending |= update.join();
+			} catch (CompletionException e) {
+				// the first failure is thrown with the others attached, so every failed source gets logged
+				Throwable cause = e.getCause() != null ? e.getCause() : e;
+
+				if (failure == null) {
+					failure = cause;
+				} else if (cause != failure) {
+					failure.addSuppressed(cause);
+				}
+			}
+		}
+
+		if (failure != null) {
+			if (failure instanceof IOException e) throw e;
+			if (failure instanceof RuntimeException e) throw e;
+			throw new CompletionException(failure);
+		}
+
+		if (!rebuildPending && previous != null) {
+			LOGGER.debug("Upstream unchanged, keeping DB, check took {} ms", (System.nanoTime() - start) / 1_000_000);
+			return previous;
+		}
+
+		VersionDatabase database = build(previous);
+		LOGGER.info("DB update took {} ms", (System.nanoTime() - start) / 1_000_000);
+
+		try {
+			DatabaseSnapshot.write(SNAPSHOT_FILE, getSources());
+		} catch (IOException e) {
+			LOGGER.warn("Error writing DB snapshot: {}", e.toString());
+		}
+
+		return database;
+	}
+
+	/**
+	 * Builds a database from the upstream data persisted by the last generation, to serve requests before the first
+	 * update completed.
+	 *
+	 * @return the database or null if there is no usable snapshot
+	 */
+	@Nullable
+	public static VersionDatabase loadSnapshot() {
+		long start = System.nanoTime();
+
+		try {
+			if (!DatabaseSnapshot.read(SNAPSHOT_FILE, getSources())) return null;
+
+			VersionDatabase database = build(null);
+			LOGGER.info("DB snapshot load took {} ms", (System.nanoTime() - start) / 1_000_000);
+
+			return database;
+		} catch (Exception e) {
+			LOGGER.warn("Error loading DB snapshot: {}", e.toString());
+			rebuildPending = true; // the sources may have been partially replaced
+
+			return null;
+		}
+	}
+
+	private static List<UpstreamResource> getSources() {
+		List<UpstreamResource> ret = new ArrayList<>();
+		ret.add(MAPPINGS_PARSER.getResource());
+		ret.add(INTERMEDIARY_PARSER.getResource());
+		ret.add(LOADER_PARSER.getResource());
+		ret.add(INSTALLER_PARSER.getResource());
+		ret.addAll(MinecraftLauncherMeta.getManifests());
+
+		return ret;
+	}
+
+	/**
+	 * @param previous database to take unchanged models from
+	 */
+	private static VersionDatabase build(@Nullable VersionDatabase previous) throws IOException {
 		VersionDatabase database = new VersionDatabase();
 		database.yarns = MAPPINGS_PARSER.getMeta(MavenBuildGameVersion::new, "net.fabricmc:yarn:");
-		database.intermediaries = INTERMEDIARY_PARSER.getMeta(MavenVersion::new, "net.fabricmc:intermediary:");
-		database.loader = LOADER_PARSER.getMeta(MavenBuildVersion::new, "net.fabricmc:fabric-loader:", list -> {
-			for (BaseVersion version : list) {
-				if (isPublicLoaderVersion(version)) {
-					version.setStable(true);
-					break;
-				}
+		// every intermediary that matches a game version is exposed as stable
+		database.intermediaries = INTERMEDIARY_PARSER.getMeta((maven, stable) -> new MavenVersion(maven, true), "net.fabricmc:intermediary:");
+		database.loader = LOADER_PARSER.getMeta(MavenBuildVersion::new, "net.fabricmc:fabric-loader:", versions -> {
+			for (int i = 0; i < versions.size(); i++) {
+				if (isPublicLoaderVersion(versions.get(i))) return i;
 			}
+
+			return -1;
 		});
 		database.installer = INSTALLER_PARSER.getMeta(MavenUrlVersion::new, "net.fabricmc:fabric-installer:");
-		database.loadMcData(initial);
-		LOGGER.info("DB update took {} ms", (System.nanoTime() - start) / 1_000_000);
+		database.loadMcData(previous);
+		database.createIndices();
+		rebuildPending = false;
+
 		return database;
 	}
 
-	private void loadMcData(boolean initial) throws IOException {
+	private void loadMcData(@Nullable VersionDatabase previous) throws IOException {
 		if (yarns == null || intermediaries == null) {
 			throw new RuntimeException("Mappings are null");
 		}
 
-		MinecraftLauncherMeta launcherMeta = MinecraftLauncherMeta.getAllMeta(initial);
+		MinecraftLauncherMeta launcherMeta = MinecraftLauncherMeta.getAllMeta();
 
 		List<MavenVersion> newIntermediary = new ArrayList<>();
 		Map<String, MavenVersion> intermediaryIndex = new HashMap<>();
@@ -103,7 +215,6 @@ public class VersionDatabase {
 				continue;
 			}
 
-			v.setStable(true);
 			newIntermediary.add(v);
 			intermediaryIndex.put(v.getVersion(), v);
 		}
@@ -123,12 +234,21 @@ public class VersionDatabase {
 			if (intermediary == null && !version.obfuscated()) { // assign noop intermediaries to the per-version data and add version to intermediary list
 				intermediary = Reference.NOOP_INTERMEDIARY_VERSION;
 
-				MavenVersion versionIntermediary = new MavenVersion("net.fabricmc:intermediary:".concat(version.id()), true);
+				String maven = "net.fabricmc:intermediary:".concat(version.id());
+				MavenVersion versionIntermediary = previous != null ? previous.intermediaryIndex.get(version.id()) : null;
+
+				if (versionIntermediary == null || !versionIntermediary.getMaven().equals(maven) || !versionIntermediary.isStable()) {
+					versionIntermediary = new MavenVersion(maven, true);
+				}
+
 				newIntermediary.add(versionIntermediary);
 			}
 
 			if (intermediary != null) {
-				BaseVersion exposedModel = new BaseVersion(version.id(), version.isStable());
+				GameVersionData previousData = previous != null ? previous.gameVersionIndex.get(version.id()) : null;
+				BaseVersion exposedModel = previousData != null && previousData.exposedModel().isStable() == version.isStable()
+						? previousData.exposedModel()
+						: new BaseVersion(version.id(), version.isStable());
 				List<MavenBuildGameVersion> versionYarns = yarnIndex.getOrDefault(version.id(), Collections.emptyList());
 				gameVersionIndex.put(version.id(), new GameVersionData(version, gameModels.size(), exposedModel, intermediary, versionYarns));
 				gameModels.add(exposedModel);
@@ -137,7 +257,24 @@ public class VersionDatabase {
 
 		//Sorts in the order of minecraft release dates
 		newIntermediary.sort(Comparator.comparingInt(o -> launcherMeta.getIndex(o.getVersion())));
-		intermediaries = newIntermediary;
+		intermediaries = Collections.unmodifiableList(newIntermediary);
+	}
+
+	private void createIndices() {
+		intermediaryIndex = createIndex(intermediaries);
+		loaderIndex = createIndex(loader);
+		installerIndex = createIndex(installer);
+		publicLoader = loader.stream().filter(v -> isPublicLoaderVersion(v.getVersion())).toList();
+	}
+
+	private static <T extends BaseVersion> Map<String, T> createIndex(List<T> versions) {
+		Map<String, T> ret = new HashMap<>(versions.size() * 4 / 3 + 1);
+
+		for (T version : versions) {
+			ret.putIfAbsent(version.getVersion(), version); // first = newest entry wins, same as a linear search
+		}
+
+		return ret;
 	}
 
 	public GameVersionData getGameData(String version) {
@@ -161,21 +298,19 @@ public class VersionDatabase {
 		return yarns;
 	}
 
-	public MavenBuildVersion getLoader(String version) {
-		for (MavenBuildVersion v : loader) {
-			if (v.getVersion().equals(version)) {
-				return v;
-			}
-		}
+	public MavenVersion getIntermediary(String version) {
+		return intermediaryIndex.get(version);
+	}
 
-		return null;
+	public MavenBuildVersion getLoader(String version) {
+		return loaderIndex.get(version);
 	}
 
 	public List<MavenBuildVersion> getLoader() {
-		return loader.stream().filter(VersionDatabase::isPublicLoaderVersion).collect(Collectors.toList());
+		return publicLoader;
 	}
 
-	private static boolean isPublicLoaderVersion(BaseVersion version) {
+	private static boolean isPublicLoaderVersion(String version) {
 		return true;
 	}
 
@@ -183,6 +318,38 @@ public class VersionDatabase {
 		return loader;
 	}
 
+	/**
+	 * Get a value derived from this database, computing it on first access.
+	 *
+	 * <p>The database isn't modified after being published, so the value stays valid until the database gets replaced
+	 * by the next update. Concurrent first accesses may compute the value more than once, but only one result is kept.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getDerived(String key, Function<VersionDatabase, T> factory) {
+		Object ret = derivedData.get(key);
+
+		if (ret == null) {
+			ret = factory.apply(this);
+			Object prev = derivedData.putIfAbsent(key, ret);
+			if (prev != null) ret = prev;
+		}
+
+		return (T) ret;
+	}
+
+	/**
+	 * Get data derived from this database if it has already been computed.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public <T> T getDerivedIfPresent(String key) {
+		return (T) derivedData.get(key);
+	}
+
+	public MavenUrlVersion getInstaller(String version) {
+		return installerIndex.get(version);
+	}
+
 	public LegacyDbDump createLegacyDbDump() {
 		return new LegacyDbDump(gameModels, yarns, intermediaries, loader, installer);
 	}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class AtomicFiles {
+	private AtomicFiles() { }
+
+	/**
+	 * Create or replace a file with the content written to a temporary file, which is then atomically moved into place
+	 * so readers never see a partial file. The temporary file is deleted if writing fails.
+	 */
+	public static void write(Path file, ContentWriter writer) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		Files.createDirectories(dir);
+		Path tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+
+		try {
+			writer.write(tmpFile);
+			Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+	public interface ContentWriter {
+		void write(Path tmpFile) throws IOException;
+	}
+}
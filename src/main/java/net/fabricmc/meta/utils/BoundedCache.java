@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Concurrent cache evicting entries that weren't read recently once the total weight exceeds a limit.
+ *
+ * <p>Eviction approximates LRU with the CLOCK algorithm: entries are queued in insertion order, reads only set a flag
+ * on the entry, and an entry read since it was last examined gets requeued once instead of being evicted.
+ *
+ * <p>Reads don't lock. Eviction is done by whichever writer pushes the cache over its limit, other writers skip it
+ * instead of waiting, so the limit may be exceeded briefly.
+ */
+public final class BoundedCache<K, V> {
+	private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+	// every entry once, in the order the eviction examines them
+	private final Queue<Entry<K, V>> queue = new ConcurrentLinkedQueue<>();
+	private final long maxWeight;
+	private final ToLongFunction<? super V> weigher;
+	private final AtomicLong weight = new AtomicLong();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	public BoundedCache(int maxEntries) {
+		this(maxEntries, value -> 1);
+	}
+
+	public BoundedCache(long maxWeight, ToLongFunction<? super V> weigher) {
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	@Nullable
+	public V get(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null) return null;
+
+		// check first to not write to shared memory on every read
+		if (!entry.referenced) entry.referenced = true;
+
+		return entry.value;
+	}
+
+	public void put(K key, V value) {
+		long entryWeight = weigher.applyAsLong(value);
+
+		entries.compute(key, (k, entry) -> {
+			if (entry == null) {
+				entry = new Entry<>(k, value, entryWeight);
+				queue.add(entry);
+				weight.addAndGet(entryWeight);
+			} else { // replace in place to keep the entry's queue position
+				weight.addAndGet(entryWeight - entry.weight);
+				entry.value = value;
+				entry.weight = entryWeight;
+			}
+
+			return entry;
+		});
+
+		if (weight.get() > maxWeight) {
+			evict();
+		}
+	}
+
+	private void evict() {
+		if (!evictionLock.tryLock()) return;
+
+		try {
+			// bounds the requeueing in case readers keep setting the flags again
+			int secondChances = entries.size();
+
+			while (weight.get() > maxWeight) {
+				Entry<K, V> entry = queue.poll();
+				if (entry == null) break;
+
+				if (entry.referenced && secondChances-- > 0) {
+					entry.referenced = false;
+					queue.add(entry);
+				} else if (entries.remove(entry.key, entry)) {
+					// the weight is final once the entry left the map
+					weight.addAndGet(-entry.weight);
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	private static final class Entry<K, V> {
+		final K key;
+		volatile V value;
+		volatile long weight;
+		volatile boolean referenced;
+
+		Entry(K key, V value, long weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Quota for a directory of cache files, deleting the least recently used files once it is exceeded.
+ *
+ * <p>Users report file accesses and additions, eviction runs on a background thread so requests never wait for it.
+ * Files present at startup are picked up by an initial scan with their modification time as last access.
+ * Files used since eviction started are kept, but a file can still vanish right after an access was reported, which
+ * users have to handle by creating it again.
+ */
+public final class DiskCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(DiskCache.class);
+	private static final Executor EVICTION_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread ret = new Thread(r, "disk cache eviction");
+		ret.setDaemon(true);
+		return ret;
+	});
+
+	private final Path dir;
+	private final Predicate<Path> filter;
+	private final Predicate<Path> pinned;
+	private final long maxBytes;
+	private final int maxEntries;
+	private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicLong size = new AtomicLong();
+	private final AtomicBoolean evictionQueued = new AtomicBoolean();
+
+	/**
+	 * @param filter files belonging to this cache, others in the directory are ignored
+	 * @param pinned files that must not be evicted at this time
+	 */
+	public DiskCache(Path dir, Predicate<Path> filter, Predicate<Path> pinned, long maxBytes, int maxEntries) {
+		this.dir = dir.toAbsolutePath().normalize();
+		this.filter = filter;
+		this.pinned = pinned;
+		this.maxBytes = maxBytes;
+		this.maxEntries = maxEntries;
+
+		EVICTION_EXECUTOR.execute(this::scan);
+	}
+
+	/**
+	 * Record an access to a cache file, or its addition if not tracked yet.
+	 */
+	public void touch(Path file) {
+		Entry entry = entries.get(normalize(file));
+
+		if (entry != null) {
+			entry.lastAccess = System.currentTimeMillis();
+		} else {
+			add(file);
+		}
+	}
+
+	/**
+	 * Record a new or replaced cache file.
+	 */
+	public void add(Path file) {
+		try {
+			track(normalize(file), Files.size(file), System.currentTimeMillis());
+		} catch (IOException e) {
+			LOGGER.warn("Can't determine size of cache file {}: {}", file, e.toString());
+		}
+	}
+
+	private void track(Path file, long fileSize, long lastAccess) {
+		Entry prev = entries.put(file, new Entry(fileSize, lastAccess));
+		size.addAndGet(prev != null ? fileSize - prev.size : fileSize);
+
+		if (isOverQuota() && evictionQueued.compareAndSet(false, true)) {
+			EVICTION_EXECUTOR.execute(this::evict);
+		}
+	}
+
+	private boolean isOverQuota() {
+		return size.get() > maxBytes || entries.size() > maxEntries;
+	}
+
+	private Path normalize(Path file) {
+		return file.toAbsolutePath().normalize();
+	}
+
+	private void scan() {
+		if (!Files.isDirectory(dir)) return;
+
+		try (Stream<Path> files = Files.walk(dir)) {
+			files.filter(filter).forEach(file -> {
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+					if (!attributes.isRegularFile() || entries.containsKey(file)) return;
+
+					track(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+				} catch (IOException e) {
+					// deleted in the meantime
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("Scanning cache dir {} failed: {}", dir, e.toString());
+		}
+	}
+
+	private void evict() {
+		evictionQueued.set(false);
+
+		// sort by a snapshot of the access times, they keep changing while evicting
+		List<Candidate> candidates = new ArrayList<>(entries.size());
+		entries.forEach((file, entry) -> candidates.add(new Candidate(file, entry, entry.lastAccess)));
+		candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+		int evicted = 0;
+
+		for (Candidate candidate : candidates) {
+			if (!isOverQuota()) break;
+			if (pinned.test(candidate.file)) continue;
+
+			// skip files that were replaced or used since the snapshot, users may be about to open them
+			if (entries.get(candidate.file) != candidate.entry || candidate.entry.lastAccess != candidate.lastAccess) continue;
+
+			try {
+				Files.deleteIfExists(candidate.file);
+			} catch (IOException e) {
+				LOGGER.warn("Evicting cache file {} failed: {}", candidate.file, e.toString());
+				continue;
+			}
+
+			if (entries.remove(candidate.file, candidate.entry)) {
+				size.addAndGet(-candidate.entry.size);
+				evicted++;
+			}
+		}
+
+		if (evicted > 0) {
+			LOGGER.info("Evicted {} files from {}, now {} files with {} bytes", evicted, dir, entries.size(), size.get());
+		}
+	}
+
+	private record Candidate(Path file, Entry entry, long lastAccess) { }
+
+	private static final class Entry {
+		final long size;
+		volatile long lastAccess;
+
+		Entry(long size, long lastAccess) {
+			this.size = size;
+			this.lastAccess = lastAccess;
+		}
+	}
+}
@@ -17,45 +17,97 @@
 package net.fabricmc.meta.utils;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.net.URI;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 
 import com.google.gson.JsonObject;
-import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
 
+import net.fabricmc.meta.FabricMeta;
 import net.fabricmc.meta.web.WebServer;
 import net.fabricmc.meta.web.models.MavenBuildVersion;
 
 public class LoaderMeta {
 	public static final File BASE_DIR = new File("metadata");
 
-	public static synchronized JsonObject getMeta(MavenBuildVersion loader) {
-		String loaderMaven = loader.getMaven();
+	// loader -> parsed launcher meta
+	private static final BoundedCache<MavenBuildVersion, JsonObject> CACHE = new BoundedCache<>(Integer.parseInt(FabricMeta.getConfig().getOrDefault("loaderMetaCacheSize", "1024")));
+	// loader maven coordinate -> download in progress, shared by all callers waiting for the same file
+	private static final PendingTasks<String, Boolean> DOWNLOADS = new PendingTasks<>();
+	// evicted files are simply downloaded again when needed, the directory is shared with other caches like the installer one
+	private static final DiskCache DISK_CACHE = new DiskCache(BASE_DIR.toPath().resolve("net/fabricmc/fabric-loader"),
+			file -> file.toString().endsWith(".json"),
+			file -> false,
+			Long.parseLong(FabricMeta.getConfig().getOrDefault("loaderMetaDiskCacheMaxBytes", "536870912")),
+			Integer.parseInt(FabricMeta.getConfig().getOrDefault("loaderMetaDiskCacheMaxFiles", "100000")));
+
+	/**
+	 * Get the launcher meta json for a loader version, downloading it if needed.
+	 *
+	 * <p>The returned object is shared between all callers and must not be modified!
+	 */
+	@Nullable
+	public static JsonObject getMeta(MavenBuildVersion loader) {
+		JsonObject ret = CACHE.get(loader);
+		if (ret != null) return ret;
+
+		ret = readMeta(loader.getMaven());
+		if (ret != null) CACHE.put(loader, ret);
+
+		return ret;
+	}
+
+	@Nullable
+	private static JsonObject readMeta(String loaderMaven) {
 		String[] split = loaderMaven.split(":");
 		String path = String.format("%s/%s/%s", split[0].replaceAll("\\.", "/"), split[1], split[2]);
 		String filename = String.format("%s-%s.json", split[1], split[2]);
 
 		File launcherMetaFile = new File(BASE_DIR, path + "/" + filename);
 
-		if (!launcherMetaFile.exists()) {
-			try {
-				String url = String.format("%s%s/%s", Reference.LOCAL_FABRIC_MAVEN_URL, path, filename);
-				System.out.println("Downloading " + url);
-				FileUtils.copyURLToFile(URI.create(url).toURL(), launcherMetaFile);
+		// the disk cache may evict the file between the checks and reading it, it then gets downloaded again
+		for (int attempt = 0; attempt < 2; attempt++) {
+			if (!launcherMetaFile.exists() && !download(loaderMaven, path, filename, launcherMetaFile)) {
+				return null;
+			}
+
+			DISK_CACHE.touch(launcherMetaFile.toPath());
+
+			try (Reader reader = Files.newBufferedReader(launcherMetaFile.toPath())) {
+				return WebServer.GSON.fromJson(reader, JsonObject.class);
+			} catch (NoSuchFileException e) {
+				// evicted, retry
 			} catch (IOException e) {
 				e.printStackTrace();
 				return null;
 			}
 		}
 
+		return null;
+	}
+
+	private static boolean download(String loaderMaven, String path, String filename, File launcherMetaFile) {
+		// downloaded on the first caller's thread, others wait for it
+		return DOWNLOADS.submit(loaderMaven, () -> {
+			// the file may have been completed between the caller's check and claiming the download
+			return launcherMetaFile.exists() || downloadToFile(path, filename, launcherMetaFile.toPath());
+		}, Runnable::run).join();
+	}
+
+	private static boolean downloadToFile(String path, String filename, Path launcherMetaFile) {
+		String url = String.format("%s%s/%s", Reference.LOCAL_FABRIC_MAVEN_URL, path, filename);
+
 		try {
-			JsonObject jsonObject = WebServer.GSON.fromJson(new FileReader(launcherMetaFile), JsonObject.class);
-			return jsonObject;
-		} catch (FileNotFoundException e) {
+			System.out.println("Downloading " + url);
+			AtomicFiles.write(launcherMetaFile, tmpFile -> UpstreamClient.download(url, tmpFile));
+
+			return true;
+		} catch (IOException e) {
 			e.printStackTrace();
-			return null;
+			return false;
 		}
 	}
 }
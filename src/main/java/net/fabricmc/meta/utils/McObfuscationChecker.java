@@ -17,25 +17,25 @@
 package net.fabricmc.meta.utils;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
-import org.apache.commons.io.IOUtils;
 
 import net.fabricmc.meta.FabricMeta;
 
@@ -43,8 +43,10 @@ public class McObfuscationChecker {
 	private static final Path FILE = FabricMeta.CACHE_DIR.resolve("obfuscated_mc_versions.json");
 	private static final OffsetDateTime FIRST_MODERN_UNOBF_RELEASE = OffsetDateTime.of(2025, 10, 1, 0, 0, 0, 0, ZoneOffset.UTC);
 
-	private final Map<String, Entry> entries = new HashMap<>();
-	private boolean dirty;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	// version -> probe in progress, shared by all callers checking the same version
+	private final PendingTasks<String, Boolean> pendingProbes = new PendingTasks<>();
+	private volatile boolean dirty;
 
 	public McObfuscationChecker() {
 		if (Files.exists(FILE)) {
@@ -63,37 +65,47 @@ public class McObfuscationChecker {
 	public void save() throws IOException {
 		if (!dirty) return;
 
+		// cleared before reading the entries, so entries added while writing get saved by the next call
+		dirty = false;
 		Files.createDirectories(FILE.getParent());
 
 		try (Writer writer = Files.newBufferedWriter(FILE)) {
 			FabricMeta.GSON.toJson(entries.values(), writer);
+		} catch (IOException e) {
+			dirty = true;
+			throw e;
 		}
-
-		dirty = false;
 	}
 
-	public boolean isObfuscated(String version, String url, byte[] hash, OffsetDateTime releaseTime) throws IOException {
-		if (releaseTime.isBefore(FIRST_MODERN_UNOBF_RELEASE)) return true;
+	/**
+	 * Determines whether a version is obfuscated, probing its version json if it isn't known yet.
+	 *
+	 * <p>Probes run concurrently, limited by the obfuscationProbeParallelism config entry. Concurrent checks of the same
+	 * version share a single probe.
+	 */
+	public CompletableFuture<Boolean> isObfuscated(String version, String url, byte[] hash, OffsetDateTime releaseTime) {
+		if (releaseTime.isBefore(FIRST_MODERN_UNOBF_RELEASE)) return CompletableFuture.completedFuture(true);
 
 		Entry entry = entries.get(version);
 
 		if (entry != null
 				&& (hash == null || entry.hash() == null || Arrays.equals(hash, entry.hash()))) {
-			return entry.obfuscated();
+			return CompletableFuture.completedFuture(entry.obfuscated());
 		}
 
-		boolean obfuscated = hasMojmapFiles(version, url);
+		return pendingProbes.submit(version, () -> {
+			boolean obfuscated = hasMojmapFiles(version, url);
 
-		entries.put(version, new Entry(version, hash, obfuscated));
-		dirty = true;
+			entries.put(version, new Entry(version, hash, obfuscated));
+			dirty = true;
 
-		return obfuscated;
+			return obfuscated;
+		}, ProbeExecutor.INSTANCE);
 	}
 
 	private static boolean hasMojmapFiles(String id, String url) throws IOException {
-		String json = IOUtils.toString(URI.create(url), StandardCharsets.UTF_8);
-
-		try (JsonReader reader = new JsonReader(new StringReader(json))) {
+		// streamed, the downloads section precedes the large libraries list so the rest doesn't have to be transferred
+		try (JsonReader reader = new JsonReader(new InputStreamReader(UpstreamClient.openStream(url), StandardCharsets.UTF_8))) {
 			reader.beginObject();
 
 			while (reader.hasNext()) {
@@ -124,12 +136,19 @@ public class McObfuscationChecker {
 			reader.endObject();
 
 			throw new IOException("missing downloads section in "+id+" version json");
-		} catch (DateTimeParseException e) {
-			throw new IOException("error parsing releaseTime: "+e);
 		} catch (IllegalStateException e) {
 			throw new IOException("error parsing json: "+e);
 		}
 	}
 
 	private record Entry(String version, byte[] hash, boolean obfuscated) { }
+
+	// created on first use as the config isn't available yet when the checker is constructed
+	private static final class ProbeExecutor {
+		static final Executor INSTANCE = Executors.newFixedThreadPool(Integer.parseInt(FabricMeta.getConfig().getOrDefault("obfuscationProbeParallelism", "8")), r -> {
+			Thread ret = new Thread(r, "obfuscation probe");
+			ret.setDaemon(true);
+			return ret;
+		});
+	}
 }
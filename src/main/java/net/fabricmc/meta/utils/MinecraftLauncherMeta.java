@@ -17,7 +17,6 @@
 package net.fabricmc.meta.utils;
 
 import java.io.IOException;
-import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,8 +29,9 @@ import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +47,10 @@ public class MinecraftLauncherMeta {
 	private static final String EXTRA_META_URL = System.getProperty("extraMcMetaUrl");
 	private static final Logger LOGGER = LoggerFactory.getLogger(VersionDatabase.class);
 
+	private static final UpstreamResource MC_MANIFEST = new UpstreamResource(Reference.MC_METADATA_URL, MinecraftLauncherMeta::validateManifest);
+	private static final UpstreamResource EXPERIMENTAL_MANIFEST = new UpstreamResource(Reference.LOCAL_FABRIC_MAVEN_URL + "net/minecraft/experimental_versions.json");
+	private static final UpstreamResource EXTRA_MANIFEST = EXTRA_META_URL != null ? new UpstreamResource(EXTRA_META_URL) : null;
+
 	private final List<Version> versions;
 	private final Map<String, Integer> index;
 
@@ -60,55 +64,86 @@ public class MinecraftLauncherMeta {
 		}
 	}
 
-	private static List<Version> getMeta(String url, boolean readFromCache, boolean writeToCache) throws IOException {
-		Path cacheFile = readFromCache || writeToCache ? FabricMeta.CACHE_DIR.resolve(url.substring(url.lastIndexOf('/') + 1)) : null;
-		String cachedJson = cacheFile != null && Files.exists(cacheFile) ? Files.readString(cacheFile) : null;
+	public static List<UpstreamResource> getManifests() {
+		return EXTRA_MANIFEST != null ? List.of(MC_MANIFEST, EXPERIMENTAL_MANIFEST, EXTRA_MANIFEST) : List.of(MC_MANIFEST, EXPERIMENTAL_MANIFEST);
+	}
 
-		try {
-			String json = IOUtils.toString(URI.create(url), StandardCharsets.UTF_8);
-			List<Version> ret = parse(json);
+	/**
+	 * Fetches the version manifests concurrently if they were modified.
+	 *
+	 * @param allowCacheRead whether to fall back to the local copy of the mojang manifest if it can't be fetched
+	 * @return one future per manifest, completing with whether it changed since the previous call
+	 */
+	public static List<CompletableFuture<Boolean>> update(boolean allowCacheRead) {
+		List<CompletableFuture<Boolean>> ret = new ArrayList<>(3);
+		// use cache to allow meta to start up even while mc's servers are flaky
+		ret.add(update(MC_MANIFEST, allowCacheRead, true));
+		ret.add(update(EXPERIMENTAL_MANIFEST, false, false));
 
-			if (writeToCache) {
-				if (ret.isEmpty()) throw new IOException("received empty version list"); // protect against overwriting cache with nothing
+		if (EXTRA_MANIFEST != null) {
+			ret.add(update(EXTRA_MANIFEST, false, false));
+		}
 
+		return ret;
+	}
+
+	private static CompletableFuture<Boolean> update(UpstreamResource manifest, boolean readFromCache, boolean writeToCache) {
+		String url = manifest.getUrl();
+		Path cacheFile = readFromCache || writeToCache ? FabricMeta.CACHE_DIR.resolve(url.substring(url.lastIndexOf('/') + 1)) : null;
+
+		return manifest.fetch().handle((changed, exc) -> {
+			if (exc == null) {
 				// success, update cache if changed
-				if (!json.equals(cachedJson)) { // cachedJson may be null
-					Files.createDirectories(cacheFile.toAbsolutePath().getParent());
-					Files.writeString(cacheFile, json);
+				if (writeToCache && changed) {
+					try {
+						Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+						Files.write(cacheFile, manifest.getContent());
+					} catch (IOException e) {
+						LOGGER.warn("Error writing MC metadata cache: {}", e.toString());
+					}
 				}
+
+				return changed;
 			}
 
-			return ret;
-		} catch (Exception e) {
-			if (readFromCache && cachedJson != null) {
-				LOGGER.warn("Error retrieving MC metadata, using local cache: {}", e.toString());
+			if (readFromCache && manifest.getContent() == null && Files.exists(cacheFile)) {
+				LOGGER.warn("Error retrieving MC metadata, using local cache: {}", exc.toString());
 
-				return parse(cachedJson);
+				try {
+					return manifest.setContent(Files.readAllBytes(cacheFile));
+				} catch (IOException e) {
+					exc.addSuppressed(e);
+				}
 			}
 
-			throw e;
-		}
+			throw exc instanceof CompletionException ce ? ce : new CompletionException(exc);
+		});
 	}
 
-	private static List<Version> parse(String json) throws IOException {
-		MclMetaVersionManifest parsed = FabricMeta.GSON.fromJson(json, MclMetaVersionManifest.class);
-		List<Version> ret = new ArrayList<>(parsed.versions.size());
+	private static void validateManifest(byte[] content) throws IOException {
+		// protect against overwriting cache with nothing
+		MclMetaVersionManifest parsed = FabricMeta.GSON.fromJson(new String(content, StandardCharsets.UTF_8), MclMetaVersionManifest.class);
+		if (parsed == null || parsed.versions == null || parsed.versions.isEmpty()) throw new IOException("received empty version list");
+	}
+
+	/**
+	 * Starts creating the versions of a manifest, unknown versions may still have to be probed for obfuscation.
+	 */
+	private static void parse(UpstreamResource manifest, List<CompletableFuture<Version>> out) {
+		MclMetaVersionManifest parsed = FabricMeta.GSON.fromJson(new String(manifest.getContent(), StandardCharsets.UTF_8), MclMetaVersionManifest.class);
 
 		for (MclMetaVersionManifest.Version version : parsed.versions) {
 			byte[] hash = version.sha1() != null ? HexFormat.of().parseHex(version.sha1()) : null;
 			OffsetDateTime time = OffsetDateTime.parse(version.releaseTime());
-			boolean obfuscated = FabricMeta.MC_OBFUSCATION_CHECKER.isObfuscated(version.id(), version.url(), hash, time);
-			if (EMULATE_OLD && !obfuscated) continue;
-
-			ret.add(new Version(version.id(),
-					version.type(),
-					version.url(),
-					hash,
-					time,
-					obfuscated));
-		}
 
-		return ret;
+			out.add(FabricMeta.MC_OBFUSCATION_CHECKER.isObfuscated(version.id(), version.url(), hash, time)
+					.thenApply(obfuscated -> new Version(version.id(),
+							version.type(),
+							version.url(),
+							hash,
+							time,
+							obfuscated)));
+		}
 	}
 
 	static final class MclMetaVersionManifest {
@@ -117,14 +152,33 @@ public class MinecraftLauncherMeta {
 		public record Version(String id, String type, String url, String releaseTime, String sha1) { }
 	}
 
-	public static MinecraftLauncherMeta getAllMeta(boolean allowCacheRead) throws IOException {
-		List<Version> versions = new ArrayList<>();
-		// use cache to allow meta to start up even while mc's servers are flaky
-		versions.addAll(getMeta(Reference.MC_METADATA_URL, allowCacheRead, true));
-		versions.addAll(getMeta(Reference.LOCAL_FABRIC_MAVEN_URL+"net/minecraft/experimental_versions.json", false, false));
+	/**
+	 * Creates the version list from the manifests retrieved by the last {@link #update(boolean)}.
+	 */
+	public static MinecraftLauncherMeta getAllMeta() throws IOException {
+		List<CompletableFuture<Version>> futures = new ArrayList<>();
+		parse(MC_MANIFEST, futures);
+		parse(EXPERIMENTAL_MANIFEST, futures);
+
+		if (EXTRA_MANIFEST != null) {
+			parse(EXTRA_MANIFEST, futures);
+		}
+
+		List<Version> versions = new ArrayList<>(futures.size());
+
+		for (CompletableFuture<Version> future : futures) {
+			Version version;
+
+			try {
+				version = future.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof IOException cause) throw cause;
+				throw e;
+			}
+
+			if (EMULATE_OLD && !version.obfuscated()) continue;
 
-		if (EXTRA_META_URL != null) {
-			versions.addAll(getMeta(EXTRA_META_URL, false, false));
+			versions.add(version);
 		}
 
 		// Order by type priority, then release time
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Tasks keyed by what they produce, concurrent submissions for a key share the task in progress instead of running
+ * it again. Once a task is done, the next submission for its key runs it anew.
+ */
+public final class PendingTasks<K, V> {
+	private final Map<K, CompletableFuture<V>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the future of the task in progress for the key, or run the task on the executor.
+	 *
+	 * <p>A direct executor like {@code Runnable::run} runs the task on the caller's thread, with later callers waiting
+	 * for it through the returned future.
+	 */
+	public CompletableFuture<V> submit(K key, Callable<V> task, Executor executor) {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		CompletableFuture<V> existing = pending.putIfAbsent(key, future);
+
+		if (existing != null) {
+			return existing;
+		}
+
+		executor.execute(() -> {
+			try {
+				future.complete(task.call());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			} finally {
+				pending.remove(key, future);
+			}
+		});
+
+		return future;
+	}
+}
@@ -16,26 +16,28 @@
 
 package net.fabricmc.meta.utils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.fabricmc.meta.web.models.BaseVersion;
 
 public class PomParser {
@@ -44,78 +46,151 @@ public class PomParser {
 	public String latestVersion = "";
 	public List<String> versions = new ArrayList<>();
 
+	private final UpstreamResource resource;
+	// unstable versions file read by the last getMeta call, to detect changes to it
+	private Path unstableVersionsPath;
+	private Set<String> unstableVersions;
+	// models created by the last getMeta call by maven coordinate
+	private Map<String, CreatedModel> models = Collections.emptyMap();
+
 	public PomParser(String path) {
 		this.path = path;
+		this.resource = new UpstreamResource(path, this::load); // only accept metadata that can be parsed
+	}
+
+	public UpstreamResource getResource() {
+		return resource;
 	}
 
-	private void load() throws IOException, XMLStreamException {
-		versions.clear();
+	/**
+	 * Fetches the maven metadata if it was modified.
+	 *
+	 * @return whether the metadata or the unstable versions file changed since the previous call
+	 */
+	public CompletableFuture<Boolean> update() {
+		return resource.fetch().thenApply(changed -> changed || hasUnstableVersionsChanged());
+	}
 
-		URL url = URI.create(path).toURL();
-		URLConnection conn = url.openConnection();
-		conn.setConnectTimeout(3000);
-		conn.setReadTimeout(3000);
-		XMLStreamReader reader = null;
+	private boolean hasUnstableVersionsChanged() {
+		if (unstableVersionsPath == null) return false;
 
 		try {
-			reader = XMLInputFactory.newInstance().createXMLStreamReader(conn.getInputStream());
+			return !Objects.equals(readUnstableVersions(unstableVersionsPath), unstableVersions);
+		} catch (IOException e) {
+			return true; // let the rebuild report it
+		}
+	}
 
-			while (reader.hasNext()) {
-				if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("version")) {
-					String text = reader.getElementText();
-					versions.add(text);
+	private void load(byte[] content) throws IOException {
+		List<String> versions = new ArrayList<>();
+
+		try {
+			XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new ByteArrayInputStream(content));
+
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("version")) {
+						String text = reader.getElementText();
+						versions.add(text);
+					}
 				}
+			} finally {
+				reader.close();
 			}
-		} finally {
-			if (reader != null) reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
 		}
 
+		if (versions.isEmpty()) throw new IOException("no versions listed");
+
 		Collections.reverse(versions);
+		this.versions = versions;
 		latestVersion = versions.get(0);
 	}
 
-	public <T extends BaseVersion> List<T> getMeta(Function<String, T> function, String prefix) throws IOException, XMLStreamException {
-		return getMeta(function, prefix, list -> {
-			if (!list.isEmpty()) list.get(0).setStable(true);
-		});
+	/**
+	 * Creates the models for the versions retrieved by the last {@link #update()}, the newest version is stable.
+	 */
+	public <T extends BaseVersion> List<T> getMeta(ModelFactory<T> factory, String prefix) throws IOException {
+		return getMeta(factory, prefix, versions -> versions.isEmpty() ? -1 : 0);
 	}
 
-	public <T extends BaseVersion> List<T> getMeta(Function<String, T> function, String prefix, StableVersionIdentifier stableIdentifier) throws IOException, XMLStreamException {
-		try {
-			load();
-		} catch (IOException e) {
-			throw new IOException("Failed to load " + path, e);
-		}
-
-		List<T> list = versions.stream()
-				.map((version) -> prefix + version)
-				.map(function)
-				.collect(Collectors.toList());
-
+	/**
+	 * Creates the models for the versions retrieved by the last {@link #update()}.
+	 *
+	 * <p>Models equal to ones created by the previous call are reused, a parser must always be used with the same model
+	 * type.
+	 */
+	public <T extends BaseVersion> List<T> getMeta(ModelFactory<T> factory, String prefix, StableVersionIdentifier stableIdentifier) throws IOException {
 		Path unstableVersionsPath = Paths.get(prefix
 				.replace(":", "_")
 				.replace(".", "_")
 				.replaceFirst(".$", "")
 				+ ".txt");
 
-		if (Files.exists(unstableVersionsPath)) {
-			// Read a file containing a new line separated list of versions that should not be marked as stable.
-			Set<String> unstableVersions = new HashSet<>(Files.readAllLines(unstableVersionsPath));
+		this.unstableVersionsPath = unstableVersionsPath;
+		this.unstableVersions = readUnstableVersions(unstableVersionsPath);
+
+		int stableIndex = -1;
 
-			for (T e : list) {
-				if (!unstableVersions.contains(e.getVersion())) {
-					e.setStable(true);
+		if (unstableVersions != null) {
+			for (int i = 0; i < versions.size(); i++) {
+				if (!unstableVersions.contains(versions.get(i))) {
+					stableIndex = i;
 					break;
 				}
 			}
 		} else {
-			stableIdentifier.process(list);
+			stableIndex = stableIdentifier.findStable(versions);
+		}
+
+		List<T> list = new ArrayList<>(versions.size());
+		Map<String, CreatedModel> newModels = new HashMap<>(versions.size() * 4 / 3 + 1);
+
+		for (int i = 0; i < versions.size(); i++) {
+			String maven = prefix + versions.get(i);
+			boolean stable = i == stableIndex;
+			CreatedModel created = models.get(maven);
+
+			if (created == null || created.stable() != stable) {
+				created = new CreatedModel(factory.create(maven, stable), stable);
+			}
+
+			@SuppressWarnings("unchecked")
+			T model = (T) created.model();
+			list.add(model);
+			newModels.put(maven, created);
 		}
 
+		models = newModels;
+
 		return Collections.unmodifiableList(list);
 	}
 
+	/**
+	 * Reads a file containing a new line separated list of versions that should not be marked as stable.
+	 *
+	 * @return the versions, null if there is no such file
+	 */
+	@Nullable
+	private static Set<String> readUnstableVersions(Path path) throws IOException {
+		if (!Files.exists(path)) return null;
+
+		return new HashSet<>(Files.readAllLines(path));
+	}
+
+	// the stability passed to the factory, which may have decided differently
+	private record CreatedModel(BaseVersion model, boolean stable) { }
+
+	public interface ModelFactory<T extends BaseVersion> {
+		T create(String maven, boolean stable);
+	}
+
 	public interface StableVersionIdentifier {
-		void process(List<? extends BaseVersion> versions);
+		/**
+		 * @param versions the versions, newest first
+		 * @return the index of the stable version or -1 if there is none
+		 */
+		int findStable(List<String> versions);
 	}
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import net.fabricmc.meta.FabricMeta;
+
+/**
+ * The HTTP client all upstream requests go through, sharing connections (HTTP/2 where supported) and timeouts.
+ */
+public final class UpstreamClient {
+	private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(Long.parseLong(FabricMeta.getConfig().getOrDefault("upstreamRequestTimeout", "10000")));
+	private static final Duration LARGE_DOWNLOAD_TIMEOUT = Duration.ofMillis(Long.parseLong(FabricMeta.getConfig().getOrDefault("upstreamLargeDownloadTimeout", "30000")));
+	private static final HttpClient CLIENT = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.connectTimeout(Duration.ofMillis(Long.parseLong(FabricMeta.getConfig().getOrDefault("upstreamConnectTimeout", "3000"))))
+			.build();
+
+	private UpstreamClient() { }
+
+	/**
+	 * Creates a GET request with the default timeout, which may be overridden.
+	 */
+	public static HttpRequest.Builder newRequest(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT);
+	}
+
+	public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, BodyHandler<T> bodyHandler) {
+		return CLIENT.sendAsync(request, bodyHandler);
+	}
+
+	public static <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> bodyHandler) throws IOException {
+		try {
+			return CLIENT.send(request, bodyHandler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted requesting " + request.uri());
+		}
+	}
+
+	/**
+	 * Opens the body of a successful response, closing it early aborts the transfer.
+	 */
+	public static InputStream openStream(String url) throws IOException {
+		HttpResponse<InputStream> response = send(newRequest(url).build(), BodyHandlers.ofInputStream());
+
+		if (response.statusCode() != 200) {
+			response.body().close();
+			checkStatus(response);
+		}
+
+		return response.body();
+	}
+
+	/**
+	 * Downloads to a file, which is only written to for a successful response.
+	 */
+	public static void download(String url, Path file) throws IOException {
+		download(url, file, REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * Downloads a file larger than most upstream responses like {@link #download(String, Path)}, but with a longer timeout.
+	 */
+	public static void downloadLarge(String url, Path file) throws IOException {
+		download(url, file, LARGE_DOWNLOAD_TIMEOUT);
+	}
+
+	private static void download(String url, Path file, Duration timeout) throws IOException {
+		HttpResponse<Path> response = send(newRequest(url).timeout(timeout).build(), info -> info.statusCode() == 200
+				? BodyHandlers.ofFile(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).apply(info)
+				: BodySubscribers.replacing(null));
+		checkStatus(response);
+	}
+
+	private static void checkStatus(HttpResponse<?> response) throws IOException {
+		if (response.statusCode() != 200) {
+			throw new IOException("Unexpected status " + response.statusCode() + " for " + response.uri());
+		}
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remote file fetched with conditional requests, remembering the validators and content of the last successful fetch.
+ */
+public final class UpstreamResource {
+	private final String url;
+	private final Validator validator;
+
+	private String etag;
+	private String lastModified;
+	private byte[] content;
+
+	public UpstreamResource(String url) {
+		this(url, content -> { });
+	}
+
+	/**
+	 * @param validator checks new content before it replaces the current one
+	 */
+	public UpstreamResource(String url, Validator validator) {
+		this.url = url;
+		this.validator = validator;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Fetches the resource, sending the validators of the previous response.
+	 *
+	 * @return future for whether the content changed, which is the case for the first fetch but not for a 304 or
+	 * identical content, failing with an {@link IOException} naming the url
+	 */
+	public CompletableFuture<Boolean> fetch() {
+		HttpRequest.Builder request = UpstreamClient.newRequest(url);
+
+		synchronized (this) {
+			if (content != null) {
+				if (etag != null) request.header("If-None-Match", etag);
+				if (lastModified != null) request.header("If-Modified-Since", lastModified);
+			}
+		}
+
+		return UpstreamClient.sendAsync(request.build(), BodyHandlers.ofByteArray()).handle((response, exc) -> {
+			try {
+				if (exc != null) throw exc instanceof CompletionException && exc.getCause() != null ? exc.getCause() : exc;
+
+				return accept(response);
+			} catch (Throwable t) {
+				throw new CompletionException(new IOException("Failed to fetch " + url, t));
+			}
+		});
+	}
+
+	private synchronized boolean accept(HttpResponse<byte[]> response) throws IOException {
+		int status = response.statusCode();
+
+		if (status == 304 && content != null) {
+			return false;
+		} else if (status != 200) {
+			throw new IOException("Unexpected status " + status);
+		}
+
+		validator.validate(response.body());
+
+		etag = response.headers().firstValue("ETag").orElse(null);
+		lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+
+		return replaceContent(response.body());
+	}
+
+	/**
+	 * Uses content obtained elsewhere, e.g. a local copy, until the next successful fetch.
+	 *
+	 * @return whether the content changed
+	 */
+	public synchronized boolean setContent(byte[] newContent) throws IOException {
+		validator.validate(newContent);
+
+		etag = null;
+		lastModified = null;
+
+		return replaceContent(newContent);
+	}
+
+	private boolean replaceContent(byte[] newContent) {
+		boolean changed = !Arrays.equals(content, newContent);
+		content = newContent;
+
+		return changed;
+	}
+
+	/**
+	 * @return the current content, null if there was no successful fetch yet
+	 */
+	@Nullable
+	public synchronized byte[] getContent() {
+		return content;
+	}
+
+	public interface Validator {
+		void validate(byte[] content) throws IOException;
+	}
+}
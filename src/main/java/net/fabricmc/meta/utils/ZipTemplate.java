@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Zip file layout for adding or replacing a single entry without touching the other entries.
+ *
+ * <p>The output consists of the source file's bytes up to its central directory, copied verbatim with all entries in
+ * their already compressed form, followed by a generated tail. The tail holds the new entry and a central directory
+ * listing the retained entries plus the new one. A replaced entry's old data stays in the prefix, but isn't referenced
+ * from the central directory anymore.
+ *
+ * <p>Zip64 files aren't supported.
+ */
+public final class ZipTemplate {
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_SIZE = 22;
+	private static final int MAX_COMMENT_SIZE = 0xffff;
+	private static final int UTF8_FLAG = 1 << 11;
+	private static final int DOS_EPOCH_DATE = (1 << 5) | 1; // 1980-01-01, keeps the output deterministic
+
+	private final byte[] entryName;
+	private final long prefixLength;
+	private final byte[] centralDirectory;
+	private final int entryCount;
+
+	private ZipTemplate(byte[] entryName, long prefixLength, byte[] centralDirectory, int entryCount) {
+		this.entryName = entryName;
+		this.prefixLength = prefixLength;
+		this.centralDirectory = centralDirectory;
+		this.entryCount = entryCount;
+	}
+
+	/**
+	 * Read the layout of a zip file for adding the entry {@code entryName}, replacing it if present.
+	 */
+	public static ZipTemplate read(FileChannel channel, String entryName) throws IOException {
+		byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer end = readEnd(channel);
+
+		int entries = Short.toUnsignedInt(end.getShort(10));
+		long cdSize = Integer.toUnsignedLong(end.getInt(12));
+		long cdOffset = Integer.toUnsignedLong(end.getInt(16));
+
+		if (entries == 0xffff || cdSize == 0xffffffffL || cdOffset == 0xffffffffL) {
+			throw new IOException("zip64 files aren't supported");
+		}
+
+		if (cdOffset + cdSize > channel.size() || cdSize > Integer.MAX_VALUE) {
+			throw new IOException("invalid central directory location");
+		}
+
+		ByteBuffer cd = ByteBuffer.allocate((int) cdSize).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, cd, cdOffset);
+
+		// copy all central directory records except the one for the replaced entry
+		ByteArrayOutputStream retained = new ByteArrayOutputStream((int) cdSize);
+		int retainedEntries = 0;
+		int pos = 0;
+
+		for (int i = 0; i < entries; i++) {
+			if (pos + CENTRAL_HEADER_SIZE > cdSize || cd.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+				throw new IOException("invalid central directory entry");
+			}
+
+			int nameLen = Short.toUnsignedInt(cd.getShort(pos + 28));
+			int recordLen = CENTRAL_HEADER_SIZE + nameLen + Short.toUnsignedInt(cd.getShort(pos + 30)) + Short.toUnsignedInt(cd.getShort(pos + 32));
+
+			if (pos + recordLen > cdSize) {
+				throw new IOException("truncated central directory entry");
+			}
+
+			if (!Arrays.equals(cd.array(), pos + CENTRAL_HEADER_SIZE, pos + CENTRAL_HEADER_SIZE + nameLen, name, 0, name.length)) {
+				retained.write(cd.array(), pos, recordLen);
+				retainedEntries++;
+			}
+
+			pos += recordLen;
+		}
+
+		if (retainedEntries + 1 > 0xffff) {
+			throw new IOException("too many entries");
+		}
+
+		return new ZipTemplate(name, cdOffset, retained.toByteArray(), retainedEntries);
+	}
+
+	/**
+	 * Number of bytes to copy verbatim from the source file before {@link #createTail(byte[]) the tail}.
+	 */
+	public long getPrefixLength() {
+		return prefixLength;
+	}
+
+	/**
+	 * Create the output's tail holding the entry with the given content and the new central directory.
+	 */
+	public byte[] createTail(byte[] data) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+
+		int localRecordLen = LOCAL_HEADER_SIZE + entryName.length + data.length;
+		long cdOffset = prefixLength + localRecordLen;
+		int cdSize = centralDirectory.length + CENTRAL_HEADER_SIZE + entryName.length;
+
+		if (cdOffset + cdSize > 0xffffffffL) {
+			throw new IOException("output too large for a non-zip64 file");
+		}
+
+		ByteBuffer ret = ByteBuffer.allocate(localRecordLen + cdSize + END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		// local file header + data, stored uncompressed
+		ret.putInt(LOCAL_HEADER_SIGNATURE);
+		ret.putShort((short) 10); // version needed to extract: 1.0
+		putEntryInfo(ret, (int) crc.getValue(), data.length);
+		ret.putShort((short) 0); // extra field length
+		ret.put(entryName);
+		ret.put(data);
+
+		// central directory: retained records + the new entry
+		ret.put(centralDirectory);
+		ret.putInt(CENTRAL_HEADER_SIGNATURE);
+		ret.putShort((short) 20); // version made by: 2.0, MS-DOS
+		ret.putShort((short) 10); // version needed to extract
+		putEntryInfo(ret, (int) crc.getValue(), data.length);
+		ret.putShort((short) 0); // extra field length
+		ret.putShort((short) 0); // comment length
+		ret.putShort((short) 0); // disk number start
+		ret.putShort((short) 0); // internal attributes
+		ret.putInt(0); // external attributes
+		ret.putInt((int) prefixLength); // local header offset
+		ret.put(entryName);
+
+		// end of central directory record
+		ret.putInt(END_SIGNATURE);
+		ret.putShort((short) 0); // number of this disk
+		ret.putShort((short) 0); // disk with the central directory
+		ret.putShort((short) (entryCount + 1));
+		ret.putShort((short) (entryCount + 1));
+		ret.putInt(cdSize);
+		ret.putInt((int) cdOffset);
+		ret.putShort((short) 0); // comment length
+
+		return ret.array();
+	}
+
+	/**
+	 * Write the full output, copying the prefix from {@code source} and appending the tail for {@code data}.
+	 */
+	public void write(FileChannel source, WritableByteChannel out, byte[] data) throws IOException {
+		long pos = 0;
+
+		while (pos < prefixLength) {
+			long transferred = source.transferTo(pos, prefixLength - pos, out);
+			if (transferred <= 0) throw new IOException("source file truncated");
+			pos += transferred;
+		}
+
+		ByteBuffer tail = ByteBuffer.wrap(createTail(data));
+
+		while (tail.hasRemaining()) {
+			out.write(tail);
+		}
+	}
+
+	private void putEntryInfo(ByteBuffer buffer, int crc, int size) {
+		buffer.putShort((short) UTF8_FLAG); // general purpose flags
+		buffer.putShort((short) 0); // compression method: stored
+		buffer.putShort((short) 0); // last mod time
+		buffer.putShort((short) DOS_EPOCH_DATE); // last mod date
+		buffer.putInt(crc);
+		buffer.putInt(size); // compressed size
+		buffer.putInt(size); // uncompressed size
+		buffer.putShort((short) entryName.length);
+	}
+
+	private static ByteBuffer readEnd(FileChannel channel) throws IOException {
+		long size = channel.size();
+		int len = (int) Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+		ByteBuffer buffer = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, buffer, size - len);
+
+		// scan backwards for the signature, the comment length has to match the remaining bytes
+		for (int pos = len - END_SIZE; pos >= 0; pos--) {
+			if (buffer.getInt(pos) == END_SIGNATURE
+					&& pos + END_SIZE + Short.toUnsignedInt(buffer.getShort(pos + 20)) == len) {
+				return buffer.slice(pos, END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		throw new IOException("no end of central directory record found");
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, pos);
+			if (read < 0) throw new IOException("unexpected end of file");
+			pos += read;
+		}
+
+		buffer.flip();
+	}
+}
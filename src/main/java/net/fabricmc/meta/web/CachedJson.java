@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.web;
+
+/**
+ * Response model together with its {@link CachedResponse}s, each format is rendered on first use.
+ *
+ * <p>Route handlers may return this instead of a plain model to have the cached response sent.
+ */
+final class CachedJson {
+	private final Object model;
+	private volatile CachedResponse pretty;
+	private volatile CachedResponse compact;
+
+	CachedJson(Object model) {
+		this.model = model;
+	}
+
+	Object getModel() {
+		return model;
+	}
+
+	boolean isRendered() {
+		return pretty != null && compact != null;
+	}
+
+	CachedResponse getResponse(boolean compact) {
+		// racing renders produce equal responses, so there's no need to synchronize
+		if (compact) {
+			CachedResponse ret = this.compact;
+			if (ret == null) this.compact = ret = CachedResponse.render(model, WebServer.COMPACT_GSON);
+			return ret;
+		} else {
+			CachedResponse ret = pretty;
+			if (ret == null) pretty = ret = CachedResponse.render(model, WebServer.GSON);
+			return ret;
+		}
+	}
+}
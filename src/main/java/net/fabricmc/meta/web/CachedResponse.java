@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable JSON response body, rendered once per {@link net.fabricmc.meta.data.VersionDatabase} instead of per request.
+ *
+ * <p>Compressed variants are produced together with the plain body, so compression is paid once per database update.
+ */
+final class CachedResponse {
+	private static final int MIN_COMPRESSION_SIZE = 1024; // smaller bodies don't gain enough to be worth it
+
+	private final Variant identity;
+	@Nullable
+	private final Variant gzip;
+	@Nullable
+	private final Variant deflate;
+
+	private CachedResponse(byte[] body) {
+		String etag = WebServer.createETag(body);
+
+		this.identity = new Variant(null, body, etag);
+		this.gzip = compress(body, "gzip", etag);
+		this.deflate = compress(body, "deflate", etag);
+	}
+
+	static CachedResponse render(Object model, Gson gson) {
+		return new CachedResponse(gson.toJson(model).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Get the ETag of the uncompressed body.
+	 */
+	String getETag() {
+		return identity.etag;
+	}
+
+	void send(Context ctx) throws IOException {
+		Variant variant = selectVariant(ctx.header(Header.ACCEPT_ENCODING));
+
+		ctx.contentType("application/json").header(Header.CACHE_CONTROL, "public, max-age=60");
+		ctx.header(Header.VARY, gzip != null || deflate != null ? Header.ACCEPT + ", " + Header.ACCEPT_ENCODING : Header.ACCEPT);
+		if (WebServer.isNotModified(ctx, variant.etag)) return;
+
+		ctx.header(Header.ETAG, variant.etag);
+		if (variant.encoding != null) ctx.header(Header.CONTENT_ENCODING, variant.encoding);
+
+		// write the raw response to keep Javalin from compressing the body again
+		HttpServletResponse res = ctx.res();
+		res.setContentLengthLong(variant.body.length);
+		res.getOutputStream().write(variant.body);
+	}
+
+	private Variant selectVariant(@Nullable String acceptEncoding) {
+		if (acceptEncoding == null || gzip == null && deflate == null) return identity;
+
+		// -1 = not listed, which falls back to the wildcard's quality
+		float gzipQuality = -1;
+		float deflateQuality = -1;
+		float wildcardQuality = 0;
+
+		for (String coding : acceptEncoding.split(",")) {
+			int paramStart = coding.indexOf(';');
+			String name = (paramStart >= 0 ? coding.substring(0, paramStart) : coding).trim();
+			float quality = paramStart >= 0 ? parseQuality(coding.substring(paramStart + 1)) : 1;
+
+			switch (name.toLowerCase()) {
+			case "gzip", "x-gzip" -> gzipQuality = quality;
+			case "deflate" -> deflateQuality = quality;
+			case "*" -> wildcardQuality = quality;
+			default -> { }
+			}
+		}
+
+		if (gzipQuality < 0) gzipQuality = wildcardQuality;
+		if (deflateQuality < 0) deflateQuality = wildcardQuality;
+
+		if (gzip != null && gzipQuality > 0 && gzipQuality >= deflateQuality) return gzip;
+		if (deflate != null && deflateQuality > 0) return deflate;
+
+		return identity;
+	}
+
+	private static float parseQuality(String params) {
+		for (String param : params.split(";")) {
+			param = param.trim();
+
+			if (param.startsWith("q=")) {
+				try {
+					return Float.parseFloat(param.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+
+		return 1;
+	}
+
+	@Nullable
+	private static Variant compress(byte[] body, String encoding, String etag) {
+		if (body.length < MIN_COMPRESSION_SIZE) return null;
+
+		ByteArrayOutputStream ret = new ByteArrayOutputStream(body.length / 4);
+
+		try (OutputStream os = encoding.equals("gzip") ? new GZIPOutputStream(ret) : new DeflaterOutputStream(ret)) {
+			os.write(body);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (ret.size() >= body.length) return null;
+
+		// each representation needs its own strong validator
+		String variantTag = etag.substring(0, etag.length() - 1).concat("-").concat(encoding).concat("\"");
+
+		return new Variant(encoding, ret.toByteArray(), variantTag);
+	}
+
+	private record Variant(@Nullable String encoding, byte[] body, String etag) { }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import io.javalin.http.Context;
 
 import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.data.VersionDatabase;
 import net.fabricmc.meta.web.models.LoaderInfoV1;
 import net.fabricmc.meta.web.models.MavenBuildGameVersion;
 import net.fabricmc.meta.web.models.MavenBuildVersion;
@@ -30,15 +31,15 @@ import net.fabricmc.meta.web.models.MavenBuildVersion;
 @SuppressWarnings("Duplicates")
 public class EndpointsV1 {
 	public static void setup() {
-		WebServer.jsonGet("/v1/versions", () -> FabricMeta.database.createLegacyDbDump());
+		WebServer.cachedJsonGet("/v1/versions", VersionDatabase::createLegacyDbDump);
 
-		WebServer.jsonGet("/v1/versions/game", () -> FabricMeta.database.getGameModels());
+		WebServer.cachedJsonGet("/v1/versions/game", VersionDatabase::getGameModels);
 		WebServer.jsonGet("/v1/versions/game/{game_version}", context -> ContextUtil.toList(ContextUtil.getGameModel(context)));
 
-		WebServer.jsonGet("/v1/versions/mappings", () -> FabricMeta.database.getYarnModels());
+		WebServer.cachedJsonGet("/v1/versions/mappings", VersionDatabase::getYarnModels);
 		WebServer.jsonGet("/v1/versions/mappings/{game_version}", ContextUtil::getYarn);
 
-		WebServer.jsonGet("/v1/versions/loader", () -> FabricMeta.database.getLoader());
+		WebServer.cachedJsonGet("/v1/versions/loader", VersionDatabase::getLoader);
 		WebServer.jsonGet("/v1/versions/loader/{game_version}", EndpointsV1::getLoaderInfoAll);
 		WebServer.jsonGet("/v1/versions/loader/{game_version}/{loader_version}", EndpointsV1::getLoaderInfo);
 	}
@@ -16,9 +16,10 @@
 
 package net.fabricmc.meta.web;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -32,32 +33,37 @@ import io.javalin.http.Context;
 import io.javalin.http.Header;
 
 import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.data.VersionDatabase;
 import net.fabricmc.meta.data.VersionDatabase.GameVersionData;
+import net.fabricmc.meta.utils.BoundedCache;
 import net.fabricmc.meta.web.models.BaseVersion;
 import net.fabricmc.meta.web.models.LoaderInfoV2;
 import net.fabricmc.meta.web.models.MavenBuildGameVersion;
 import net.fabricmc.meta.web.models.MavenBuildVersion;
+import net.fabricmc.meta.web.models.MavenVersion;
 
 @SuppressWarnings("Duplicates")
 public class EndpointsV2 {
+	private static final int LOADER_INFO_CACHE_SIZE = Integer.parseInt(FabricMeta.getConfig().getOrDefault("loaderInfoCacheSize", "64"));
+
 	public static void setup() {
-		WebServer.jsonGet("/v2/versions", () -> FabricMeta.database.createLegacyDbDump());
+		WebServer.cachedJsonGet("/v2/versions", VersionDatabase::createLegacyDbDump);
 
-		WebServer.jsonGet("/v2/versions/game", () -> FabricMeta.database.getGameModels());
-		WebServer.jsonGet("/v2/versions/game/yarn", () -> toBaseVersion(FabricMeta.database.getYarnModels(), MavenBuildGameVersion::getGameVersion, v -> new BaseVersion(v.getGameVersion(), v.isStable())));
-		WebServer.jsonGet("/v2/versions/game/intermediary", () -> toBaseVersion(FabricMeta.database.getIntermediaryModels(), BaseVersion::getVersion, v -> new BaseVersion(v.getVersion(), v.isStable())));
+		WebServer.cachedJsonGet("/v2/versions/game", VersionDatabase::getGameModels);
+		WebServer.cachedJsonGet("/v2/versions/game/yarn", db -> toBaseVersion(db.getYarnModels(), MavenBuildGameVersion::getGameVersion, v -> new BaseVersion(v.getGameVersion(), v.isStable())));
+		WebServer.cachedJsonGet("/v2/versions/game/intermediary", db -> toBaseVersion(db.getIntermediaryModels(), BaseVersion::getVersion, v -> new BaseVersion(v.getVersion(), v.isStable())));
 
-		WebServer.jsonGet("/v2/versions/yarn", context -> withLimitSkip(context, FabricMeta.database.getYarnModels()));
+		WebServer.cachedJsonGet("/v2/versions/yarn", VersionDatabase::getYarnModels, EndpointsV2::withLimitSkip);
 		WebServer.jsonGet("/v2/versions/yarn/{game_version}", context -> withLimitSkip(context, ContextUtil.getYarn(context)));
 
-		WebServer.jsonGet("/v2/versions/intermediary", () -> FabricMeta.database.getIntermediaryModels());
+		WebServer.cachedJsonGet("/v2/versions/intermediary", VersionDatabase::getIntermediaryModels);
 		WebServer.jsonGet("/v2/versions/intermediary/{game_version}", EndpointsV2::getIntermediaryInfo);
 
-		WebServer.jsonGet("/v2/versions/loader", context -> withLimitSkip(context, FabricMeta.database.getLoader()));
-		WebServer.jsonGet("/v2/versions/loader/{game_version}", context -> withLimitSkip(context, EndpointsV2.getLoaderInfoAll(context)));
+		WebServer.cachedJsonGet("/v2/versions/loader", VersionDatabase::getLoader, EndpointsV2::withLimitSkip);
+		WebServer.jsonGet("/v2/versions/loader/{game_version}", EndpointsV2::getLoaderInfoAll);
 		WebServer.jsonGet("/v2/versions/loader/{game_version}/{loader_version}", EndpointsV2::getLoaderInfo);
 
-		WebServer.jsonGet("/v2/versions/installer", context -> withLimitSkip(context, FabricMeta.database.installer));
+		WebServer.cachedJsonGet("/v2/versions/installer", db -> db.installer, EndpointsV2::withLimitSkip);
 
 		ProfileHandler.setup();
 		ServerBootstrap.setup();
@@ -105,7 +111,7 @@ public class EndpointsV2 {
 		return new LoaderInfoV2(loader, game.intermediary()).populateMeta();
 	}
 
-	private static List<?> getLoaderInfoAll(Context context) {
+	private static Object getLoaderInfoAll(Context context) {
 		GameVersionData game = ContextUtil.getGame(context);
 
 		if (game == null) {
@@ -113,16 +119,46 @@ public class EndpointsV2 {
 			return List.of();
 		}
 
+		CachedJson loaderInfo = getLoaderInfoAll(FabricMeta.database, game.intermediary());
+		if (!WebServer.hasQueryParams(context)) return loaderInfo;
+
+		@SuppressWarnings("unchecked")
+		List<LoaderInfoV2> ret = withLimitSkip(context, (List<LoaderInfoV2>) loaderInfo.getModel());
+
+		// an incomplete list isn't determined by the database, so it must not get the database derived ETag
+		return isComplete(ret) ? ret : new CachedJson(ret);
+	}
+
+	private static CachedJson getLoaderInfoAll(VersionDatabase database, MavenVersion intermediary) {
+		// The list only depends on the intermediary, so it gets memoized per database and intermediary. There's one
+		// intermediary per obfuscated game version, hence the size limit.
+		BoundedCache<MavenVersion, CachedJson> cache = database.getDerived("loaderInfo", db -> new BoundedCache<>(LOADER_INFO_CACHE_SIZE));
+		CachedJson ret = cache.get(intermediary);
+		if (ret != null) return ret;
+
 		List<LoaderInfoV2> infoList = new ArrayList<>();
 
-		for (MavenBuildVersion loader : FabricMeta.database.getLoader()) {
-			infoList.add(new LoaderInfoV2(loader, game.intermediary()).populateMeta());
+		for (MavenBuildVersion loader : database.getLoader()) {
+			infoList.add(new LoaderInfoV2(loader, intermediary).populateMeta());
 		}
 
-		return infoList;
+		ret = new CachedJson(Collections.unmodifiableList(infoList));
+
+		// a missing launcher meta may be a transient download failure, so the list is built again by the next request
+		if (isComplete(infoList)) cache.put(intermediary, ret);
+
+		return ret;
 	}
 
-	private static <T extends BaseVersion> Collection<BaseVersion> toBaseVersion(List<T> list, Function<T, String> gameVersionSupplier, Function<T, BaseVersion> baseVersionSupplier) {
+	private static boolean isComplete(List<LoaderInfoV2> infoList) {
+		for (LoaderInfoV2 info : infoList) {
+			if (info.getLauncherMeta() == null) return false;
+		}
+
+		return true;
+	}
+
+	private static <T extends BaseVersion> List<BaseVersion> toBaseVersion(List<T> list, Function<T, String> gameVersionSupplier, Function<T, BaseVersion> baseVersionSupplier) {
 		Map<String, BaseVersion> ret = new LinkedHashMap<>(list.size());
 
 		for (T entry : list) {
@@ -133,12 +169,12 @@ public class EndpointsV2 {
 			}
 		}
 
-		return ret.values();
+		return new ArrayList<>(ret.values()); // a list to make it comparable with the previous generation's
 	}
 
 	public static void fileDownload(String side, String ext,
 			Function<ProfileEnvironment, String> fileNameFunction,
-			Function<ProfileEnvironment, CompletableFuture<InputStream>> streamSupplier) {
+			Function<ProfileEnvironment, CompletableFuture<BodyWriter>> bodySupplier) {
 		String path = switch (side) {
 		case "client" -> "profile";
 		case "server" -> "server";
@@ -172,9 +208,27 @@ public class EndpointsV2 {
 			}
 
 			//Cache for a day
-			ctx.header(Header.CACHE_CONTROL, "public, max-age=86400");
+			String cacheControl = "public, max-age=86400";
+
+			// The content only depends on these inputs, but it may embed its creation time and is compressed on the fly, so equal tags are only weakly equal.
+			// All loaders and intermediaries share their group and artifact, so the versions suffice.
+			String etag = WebServer.createETag(true, side, ext, game.version().id(), Boolean.toString(game.version().obfuscated()), game.intermediary().getVersion(), loader.getVersion());
 
-			ctx.future(() -> streamSupplier.apply(subCtx).thenApply(ctx::result));
+			if (WebServer.isNotModified(ctx, etag)) {
+				ctx.header(Header.CACHE_CONTROL, cacheControl);
+				return;
+			}
+
+			ctx.future(() -> bodySupplier.apply(subCtx).thenAccept(writer -> {
+				// only now that the body is available, so a failed generation doesn't get cached
+				ctx.header(Header.CACHE_CONTROL, cacheControl).header(Header.ETAG, etag);
+
+				try {
+					writer.write(ctx.outputStream());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
 		});
 	}
 
@@ -184,4 +238,11 @@ public class EndpointsV2 {
 	}
 
 	record ProfileEnvironment(GameVersionData game, MavenBuildVersion loader, String side, String ext) { }
+
+	/**
+	 * Writes a response body once the headers are final.
+	 */
+	interface BodyWriter {
+		void write(OutputStream out) throws IOException;
+	}
 }
@@ -16,32 +16,37 @@
 
 package net.fabricmc.meta.web;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
+import org.jetbrains.annotations.Nullable;
 
+import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.utils.BoundedCache;
 import net.fabricmc.meta.utils.LoaderMeta;
-import net.fabricmc.meta.utils.Reference;
+import net.fabricmc.meta.web.EndpointsV2.BodyWriter;
 import net.fabricmc.meta.web.EndpointsV2.ProfileEnvironment;
+import net.fabricmc.meta.web.models.MavenBuildVersion;
+import net.fabricmc.meta.web.models.MavenVersion;
 
 public class ProfileHandler {
 	private static final Executor EXECUTOR = Executors.newFixedThreadPool(2);
-	private static final DateFormat ISO_8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+	private static final DateTimeFormatter ISO_8601 = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+	private static final long CACHE_SIZE = Long.parseLong(FabricMeta.getConfig().getOrDefault("profileCacheSize", "16777216"));
+	private static final BoundedCache<ProfileKey, byte[]> CACHE = new BoundedCache<>(CACHE_SIZE, content -> content.length);
+	private static final BoundedCache<TemplateKey, ProfileTemplate> TEMPLATES = new BoundedCache<>(Integer.parseInt(FabricMeta.getConfig().getOrDefault("profileTemplateCacheSize", "256")));
+	/** Take the profile timestamps from the game release instead of the request time, making the output reproducible. */
+	private static final boolean DETERMINISTIC = Boolean.parseBoolean(FabricMeta.getConfig().getOrDefault("deterministicProfiles", "false"));
 
 	public static void setup() {
 		EndpointsV2.fileDownload("client", "json", ProfileHandler::getFileName, ProfileHandler::profileJson);
@@ -64,107 +69,105 @@ public class ProfileHandler {
 		}
 	}
 
-	private static CompletableFuture<InputStream> profileJson(ProfileEnvironment env) {
-		return CompletableFuture.supplyAsync(() -> getProfileJsonStream(env), EXECUTOR);
-	}
-
-	private static CompletableFuture<InputStream> profileZip(ProfileEnvironment env) {
-		return profileJson(env)
-				.thenApply(inputStream -> packageZip(env, inputStream));
-	}
+	private static CompletableFuture<BodyWriter> profileJson(ProfileEnvironment env) {
+		// Only reproducible profiles are memoized, the others have to carry the current time
+		ProfileKey key = ProfileKey.of(env);
+		byte[] cached = DETERMINISTIC ? getCached(key) : null;
 
-	private static InputStream packageZip(ProfileEnvironment env, InputStream profileJson) {
-		String profileName = getName(env);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(out -> out.write(cached));
+		}
 
-		try {
-			ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		return CompletableFuture.supplyAsync(() -> {
+			byte[] json = getProfileJson(env);
+			if (DETERMINISTIC && CACHE_SIZE > 0) CACHE.put(key, json);
 
-			try (ZipOutputStream zipStream = new ZipOutputStream(byteArrayOutputStream)) {
-				//Write the profile json
-				zipStream.putNextEntry(new ZipEntry(profileName + "/" + profileName + ".json"));
-				IOUtils.copy(profileJson, zipStream);
-				zipStream.closeEntry();
+			return out -> out.write(json);
+		}, EXECUTOR);
+	}
 
-				//Write the dummy jar file
-				zipStream.putNextEntry(new ZipEntry(profileName + "/" + profileName + ".jar"));
-				zipStream.closeEntry();
-			}
+	private static CompletableFuture<BodyWriter> profileZip(ProfileEnvironment env) {
+		ProfileKey key = ProfileKey.of(env);
+		byte[] cached = getCached(key);
 
-			//Is this really the best way??
-			return new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-		} catch (IOException e) {
-			throw new CompletionException(e);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(out -> out.write(cached));
 		}
-	}
 
-	private static InputStream getProfileJsonStream(ProfileEnvironment env) {
-		JsonObject jsonObject = buildProfileJson(env);
-		return new ByteArrayInputStream(jsonObject.toString().getBytes());
+		return CompletableFuture.supplyAsync(() -> getProfileJson(env), EXECUTOR)
+				.thenApply(json -> out -> {
+					if (CACHE_SIZE <= 0) {
+						writeZip(env, json, out);
+						return;
+					}
+
+					// Stream to the client while keeping a copy, the zip is small compared to the cache
+					ByteArrayOutputStream copy = new ByteArrayOutputStream();
+					writeZip(env, json, new TeeOutputStream(out, copy));
+					CACHE.put(key, copy.toByteArray());
+				});
 	}
 
-	//This is based of the installer code.
-	private static JsonObject buildProfileJson(ProfileEnvironment env) {
-		JsonObject launcherMeta = LoaderMeta.getMeta(env.loader());
+	@Nullable
+	private static byte[] getCached(ProfileKey key) {
+		return CACHE_SIZE > 0 ? CACHE.get(key) : null;
+	}
 
+	private static void writeZip(ProfileEnvironment env, byte[] profileJson, OutputStream out) throws IOException {
 		String profileName = getName(env);
+		ZipOutputStream zipStream = new ZipOutputStream(out);
 
-		JsonObject librariesObject = launcherMeta.get("libraries").getAsJsonObject();
-		// Build the libraries array with the existing libs + loader and intermediary
-		JsonArray libraries = (JsonArray) librariesObject.get("common");
-
-		if (env.game().version().obfuscated()) {
-			libraries.add(formatLibrary(env.game().intermediary().getMaven(), Reference.FABRIC_MAVEN_URL));
-		}
-
-		libraries.add(formatLibrary(env.loader().getMaven(), Reference.FABRIC_MAVEN_URL));
+		//Write the profile json
+		zipStream.putNextEntry(createZipEntry(env, profileName + "/" + profileName + ".json"));
+		zipStream.write(profileJson);
+		zipStream.closeEntry();
 
-		if (librariesObject.has(env.side())) {
-			libraries.addAll(librariesObject.get(env.side()).getAsJsonArray());
-		}
-
-		String currentTime = ISO_8601.format(new Date());
+		//Write the dummy jar file
+		zipStream.putNextEntry(createZipEntry(env, profileName + "/" + profileName + ".jar"));
+		zipStream.closeEntry();
 
-		JsonObject profile = new JsonObject();
-		profile.addProperty("id", profileName);
-		profile.addProperty("inheritsFrom", env.game().version().id());
-		profile.addProperty("releaseTime", currentTime);
-		profile.addProperty("time", currentTime);
-		profile.addProperty("type", "release");
+		// finish instead of close, the response stream is closed by javalin
+		zipStream.finish();
+	}
 
-		JsonElement mainClassElement = launcherMeta.get("mainClass");
-		String mainClass;
+	private static ZipEntry createZipEntry(ProfileEnvironment env, String name) {
+		ZipEntry entry = new ZipEntry(name);
+		if (DETERMINISTIC) entry.setTimeLocal(env.game().version().releaseTime().toLocalDateTime());
 
-		if (mainClassElement.isJsonObject()) {
-			mainClass = mainClassElement.getAsJsonObject().get(env.side()).getAsString();
-		} else {
-			mainClass = mainClassElement.getAsString();
-		}
-
-		profile.addProperty("mainClass", mainClass);
+		return entry;
+	}
 
-		JsonObject arguments = new JsonObject();
+	private static byte[] getProfileJson(ProfileEnvironment env) {
+		return buildProfileJson(env).getBytes(StandardCharsets.UTF_8);
+	}
 
-		// I believe this is required to stop the launcher from complaining
-		arguments.add("game", new JsonArray());
+	//This is based of the installer code.
+	private static String buildProfileJson(ProfileEnvironment env) {
+		String intermediary = env.game().version().obfuscated() ? env.game().intermediary().getMaven() : null;
+		String currentTime = ISO_8601.format(DETERMINISTIC ? env.game().version().releaseTime() : ZonedDateTime.now());
 
-		if (env.side().equals("client")) {
-			// add '-DFabricMcEmu= net.minecraft.client.main.Main ' to emulate vanilla MC presence for programs that check the process command line (discord, nvidia hybrid gpu, ..)
-			JsonArray jvmArgs = new JsonArray();
-			jvmArgs.add("-DFabricMcEmu= net.minecraft.client.main.Main ");
-			arguments.add("jvm", jvmArgs);
-		}
+		return getTemplate(env.loader(), env.side()).toJson(getName(env), env.game().version().id(), currentTime, intermediary, env.loader().getMaven());
+	}
 
-		profile.add("arguments", arguments);
+	private static ProfileTemplate getTemplate(MavenBuildVersion loader, String side) {
+		TemplateKey key = new TemplateKey(loader, side);
+		ProfileTemplate ret = TEMPLATES.get(key);
+		if (ret != null) return ret;
 
-		profile.add("libraries", libraries);
+		ret = ProfileTemplate.create(LoaderMeta.getMeta(loader), side);
+		TEMPLATES.put(key, ret);
 
-		return profile;
+		return ret;
 	}
 
-	private static JsonObject formatLibrary(String mavenPath, String url) {
-		JsonObject jsonObject = new JsonObject();
-		jsonObject.addProperty("name", mavenPath);
-		jsonObject.addProperty("url", url);
-		return jsonObject;
+	private record TemplateKey(MavenBuildVersion loader, String side) { }
+
+	/**
+	 * Every input of a profile besides its format, entries for a previous database generation stay valid as long as these don't change.
+	 */
+	private record ProfileKey(String game, boolean obfuscated, MavenVersion intermediary, MavenBuildVersion loader, String side, String ext) {
+		static ProfileKey of(ProfileEnvironment env) {
+			return new ProfileKey(env.game().version().id(), env.game().version().obfuscated(), env.game().intermediary(), env.loader(), env.side(), env.ext());
+		}
 	}
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.meta.utils.Reference;
+
+/**
+ * The parts of a profile only depending on the loader and side, serialized once.
+ *
+ * @param mainClass the serialized main class string
+ * @param arguments the serialized arguments object
+ * @param commonLibraries the serialized common library elements without the enclosing brackets, may be empty
+ * @param sideLibraries the serialized side specific library elements without the enclosing brackets, may be empty
+ */
+public record ProfileTemplate(String mainClass, String arguments, String commonLibraries, String sideLibraries) {
+	/**
+	 * Create the template from a loader's launcher meta, which is only read.
+	 */
+	public static ProfileTemplate create(JsonObject launcherMeta, String side) {
+		JsonObject librariesObject = launcherMeta.get("libraries").getAsJsonObject();
+		JsonElement mainClassElement = launcherMeta.get("mainClass");
+		String mainClass;
+
+		if (mainClassElement.isJsonObject()) {
+			mainClass = mainClassElement.getAsJsonObject().get(side).getAsString();
+		} else {
+			mainClass = mainClassElement.getAsString();
+		}
+
+		JsonObject arguments = new JsonObject();
+
+		// I believe this is required to stop the launcher from complaining
+		arguments.add("game", new JsonArray());
+
+		if (side.equals("client")) {
+			// add '-DFabricMcEmu= net.minecraft.client.main.Main ' to emulate vanilla MC presence for programs that check the process command line (discord, nvidia hybrid gpu, ..)
+			JsonArray jvmArgs = new JsonArray();
+			jvmArgs.add("-DFabricMcEmu= net.minecraft.client.main.Main ");
+			arguments.add("jvm", jvmArgs);
+		}
+
+		return new ProfileTemplate(quote(mainClass), arguments.toString(),
+				serializeElements(librariesObject.get("common").getAsJsonArray()),
+				librariesObject.has(side) ? serializeElements(librariesObject.get(side).getAsJsonArray()) : "");
+	}
+
+	/**
+	 * Assemble a profile, giving the same output as {@link JsonObject#toString()} would for the profile tree.
+	 *
+	 * @param intermediary the intermediary maven coordinate, null for unobfuscated game versions
+	 * @param loader the loader maven coordinate
+	 */
+	public String toJson(String profileName, String gameVersion, String time, @Nullable String intermediary, String loader) {
+		String quotedTime = quote(time);
+
+		// The existing libs + loader and intermediary
+		List<String> libraries = new ArrayList<>(4);
+		if (!commonLibraries.isEmpty()) libraries.add(commonLibraries);
+		if (intermediary != null) libraries.add(formatLibrary(intermediary, Reference.FABRIC_MAVEN_URL).toString());
+		libraries.add(formatLibrary(loader, Reference.FABRIC_MAVEN_URL).toString());
+		if (!sideLibraries.isEmpty()) libraries.add(sideLibraries);
+
+		return "{\"id\":" + quote(profileName)
+				+ ",\"inheritsFrom\":" + quote(gameVersion)
+				+ ",\"releaseTime\":" + quotedTime
+				+ ",\"time\":" + quotedTime
+				+ ",\"type\":\"release\""
+				+ ",\"mainClass\":" + mainClass
+				+ ",\"arguments\":" + arguments
+				+ ",\"libraries\":[" + String.join(",", libraries) + "]}";
+	}
+
+	private static String serializeElements(JsonArray array) {
+		String ret = array.toString();
+
+		return ret.substring(1, ret.length() - 1);
+	}
+
+	private static String quote(String value) {
+		return new JsonPrimitive(value).toString();
+	}
+
+	private static JsonObject formatLibrary(String mavenPath, String url) {
+		JsonObject jsonObject = new JsonObject();
+		jsonObject.addProperty("name", mavenPath);
+		jsonObject.addProperty("url", url);
+		return jsonObject;
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.HttpOutput;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Binary download supporting single byte range requests, written straight to the servlet response.
+ *
+ * <p>Bypassing Javalin's result stream avoids copying through heap buffers and keeps Javalin from compressing the
+ * already compressed content, which would break range offsets.
+ */
+abstract class RangedDownload {
+	abstract long length();
+
+	abstract void write(long offset, long count, OutputStream out) throws IOException;
+
+	static RangedDownload ofFile(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+		return new FileDownload(channel, channel.size());
+	}
+
+	/**
+	 * Create a download consisting of the concatenated segments, which must not be modified afterwards.
+	 */
+	static RangedDownload ofBytes(byte[]... segments) {
+		return new BytesDownload(segments);
+	}
+
+	/**
+	 * Send the download, answering {@code Range} requests with 206 Partial Content if {@code If-Range} permits it.
+	 *
+	 * @param etag strong ETag of the full content
+	 * @param cacheControl Cache-Control for the content, not sent with errors
+	 */
+	void send(Context ctx, String etag, String cacheControl) throws IOException {
+		long length = length();
+		long start = 0;
+		long end = length - 1; // inclusive
+		String range = ctx.header(Header.RANGE);
+
+		ctx.header(Header.ACCEPT_RANGES, "bytes");
+
+		if (range != null && isIfRangeSatisfied(ctx.header(Header.IF_RANGE), etag)) {
+			Range parsed = parseRange(range, length);
+
+			if (parsed == Range.UNSATISFIABLE) {
+				ctx.status(416).header(Header.CONTENT_RANGE, "bytes */" + length);
+				close();
+				return;
+			} else if (parsed != null) {
+				start = parsed.start;
+				end = parsed.end;
+				ctx.status(206).header(Header.CONTENT_RANGE, String.format("bytes %d-%d/%d", start, end, length));
+			}
+		}
+
+		ctx.header(Header.CACHE_CONTROL, cacheControl).header(Header.ETAG, etag);
+
+		HttpServletResponse res = ctx.res();
+		res.setContentLengthLong(end - start + 1);
+
+		try {
+			write(start, end - start + 1, res.getOutputStream());
+		} finally {
+			close();
+		}
+	}
+
+	void close() throws IOException { }
+
+	private static boolean isIfRangeSatisfied(@Nullable String ifRange, String etag) {
+		// If-Range requires a strong match, dates never match as no Last-Modified is sent
+		return ifRange == null || !ifRange.startsWith("W/") && ifRange.trim().equals(etag);
+	}
+
+	/**
+	 * Parse a single byte range.
+	 *
+	 * @return the range, {@link Range#UNSATISFIABLE} or null if the header is to be ignored as it is invalid or requests
+	 * multiple ranges
+	 */
+	@Nullable
+	private static Range parseRange(String header, long length) {
+		if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+
+		String spec = header.substring(6).trim();
+		int sep = spec.indexOf('-');
+		if (sep < 0) return null;
+
+		try {
+			if (sep == 0) { // suffix range: last n bytes
+				long suffixLength = Long.parseLong(spec.substring(1));
+				if (suffixLength <= 0 || length == 0) return Range.UNSATISFIABLE;
+
+				return new Range(Math.max(0, length - suffixLength), length - 1);
+			}
+
+			long start = Long.parseLong(spec.substring(0, sep));
+			long end = sep == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(sep + 1));
+
+			if (start < 0 || end < start) return null;
+			if (start >= length) return Range.UNSATISFIABLE;
+
+			return new Range(start, Math.min(end, length - 1));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private record Range(long start, long end) {
+		static final Range UNSATISFIABLE = new Range(-1, -1);
+	}
+
+	private static final class FileDownload extends RangedDownload {
+		private final FileChannel channel;
+		private final long length;
+
+		FileDownload(FileChannel channel, long length) {
+			this.channel = channel;
+			this.length = length;
+		}
+
+		@Override
+		long length() {
+			return length;
+		}
+
+		@Override
+		void write(long offset, long count, OutputStream out) throws IOException {
+			if (out instanceof HttpOutput httpOutput && count <= Integer.MAX_VALUE) {
+				// Jetty writes the mapped buffer from the page cache to the socket without copying it into the heap. This
+				// completes the response, so the whole body has to be sent at once.
+				httpOutput.sendContent(channel.map(FileChannel.MapMode.READ_ONLY, offset, count));
+			} else {
+				WritableByteChannel target = Channels.newChannel(out);
+
+				while (count > 0) {
+					long transferred = channel.transferTo(offset, count, target);
+					if (transferred <= 0) throw new IOException("file truncated");
+					offset += transferred;
+					count -= transferred;
+				}
+			}
+		}
+
+		@Override
+		void close() throws IOException {
+			channel.close();
+		}
+	}
+
+	private static final class BytesDownload extends RangedDownload {
+		private final byte[][] segments;
+
+		BytesDownload(byte[][] segments) {
+			this.segments = segments;
+		}
+
+		@Override
+		long length() {
+			long ret = 0;
+
+			for (byte[] segment : segments) {
+				ret += segment.length;
+			}
+
+			return ret;
+		}
+
+		@Override
+		void write(long offset, long count, OutputStream out) throws IOException {
+			for (byte[] segment : segments) {
+				if (count <= 0) break;
+
+				if (offset >= segment.length) {
+					offset -= segment.length;
+					continue;
+				}
+
+				int len = (int) Math.min(count, segment.length - offset);
+				out.write(segment, (int) offset, len);
+				offset = 0;
+				count -= len;
+			}
+		}
+	}
+}
@@ -17,39 +17,71 @@
 package net.fabricmc.meta.web;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URI;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
 import io.javalin.http.Header;
 import io.javalin.http.InternalServerErrorResponse;
-import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.data.VersionDatabase;
+import net.fabricmc.meta.utils.AtomicFiles;
+import net.fabricmc.meta.utils.BoundedCache;
+import net.fabricmc.meta.utils.DiskCache;
+import net.fabricmc.meta.utils.PendingTasks;
 import net.fabricmc.meta.utils.Reference;
+import net.fabricmc.meta.utils.UpstreamClient;
+import net.fabricmc.meta.utils.ZipTemplate;
 import net.fabricmc.meta.web.models.BaseVersion;
 
 public class ServerBootstrap {
 	private static final Path CACHE_DIR = Paths.get("metadata", "installer");
-	private static final Executor WORKER_EXECUTOR = Executors.newSingleThreadExecutor();
+	private static final Executor WORKER_EXECUTOR = Executors.newFixedThreadPool(Integer.parseInt(FabricMeta.getConfig().getOrDefault("serverJarWorkers", "4")));
+	// cache file -> its creation in progress, shared by all requests needing the file
+	private static final PendingTasks<Path, Path> PENDING_FILES = new PendingTasks<>();
+	private static final String INSTALL_PROPERTIES = "install.properties";
+	private static final String INSTALLER_JAR_PREFIX = "fabric-installer-";
+	private static final String BUNDLED_JAR_PREFIX = "fabric-server-";
+	// Bundled jars are written reproducibly since this version of their cache file name, which allows the strong ETag
+	// and range requests spanning several responses. Files from before are deleted instead of being served.
+	private static final String BUNDLED_JAR_SUFFIX = ".r1.jar";
+	private static final DiskCache DISK_CACHE = new DiskCache(CACHE_DIR,
+			ServerBootstrap::isCurrentCacheFile,
+			ServerBootstrap::isReferencedInstallerJar,
+			Long.parseLong(FabricMeta.getConfig().getOrDefault("installerCacheMaxBytes", "4294967296")),
+			Integer.parseInt(FabricMeta.getConfig().getOrDefault("installerCacheMaxFiles", "10000")));
+
+	// Synthesize bundled jars in memory from a per installer version template instead of storing every combination
+	private static final boolean SYNTHESIZE_JARS = FabricMeta.getConfig().getOrDefault("serverJarMode", "files").equals("synthesize");
+	// installer version -> template, weighed by the template size in bytes
+	private static final BoundedCache<String, InstallerTemplate> INSTALLER_TEMPLATES = new BoundedCache<>(
+			Long.parseLong(FabricMeta.getConfig().getOrDefault("installerTemplateCacheSize", "67108864")),
+			template -> template.prefix().length);
 
 	public static void setup() {
 		// http://localhost:5555/v2/versions/loader/1.17.1/0.12.0/0.8.0/server/jar
 		WebServer.javalin.get("/v2/versions/loader/{game_version}/{loader_version}/{installer_version}/server/jar", boostrapHandler());
+
+		WORKER_EXECUTOR.execute(ServerBootstrap::deleteLegacyJars);
 	}
 
 	private static Handler boostrapHandler() {
@@ -59,133 +91,285 @@ public class ServerBootstrap {
 				throw new BadRequestResponse("Query params not allowed on this endpoint.");
 			}
 
-			final String installerVersion = getAndValidateVersion(ctx, FabricMeta.database.installer, "installer_version");
-			final String gameVersion = getAndValidateVersion(ctx, FabricMeta.database.getGameModels(), "game_version");
-			final String loaderVersion = getAndValidateVersion(ctx, FabricMeta.database.getAllLoader(), "loader_version");
+			final VersionIndex index = FabricMeta.database.getDerived("serverBootstrap", VersionIndex::create);
+			final String installerVersion = index.installer().resolve(ctx, "installer_version");
+			final String gameVersion = index.game().resolve(ctx, "game_version");
+			final String loaderVersion = index.loader().resolve(ctx, "loader_version");
 
-			validateLoaderVersion(loaderVersion);
-			validateInstallerVersion(installerVersion);
+			if (!index.loader().isEligible(loaderVersion)) {
+				throw new BadRequestResponse("Fabric loader 0.12 or higher is required for unattended server installs. Please use a newer fabric loader version, or the full installer.");
+			}
+
+			if (!index.installer().isEligible(installerVersion)) {
+				throw new BadRequestResponse("Fabric Installer 0.8 or higher is required for unattended server installs.");
+			}
 
 			// Set the filename and cache headers
 			final String filename = String.format("fabric-server-mc.%s-loader.%s-launcher.%s.jar", gameVersion, loaderVersion, installerVersion);
 			ctx.header(Header.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s\"", filename));
 			final String cacheControl = String.format("public, max-age=%d", getCacheDuration(ctx));
-			ctx.header(Header.CACHE_CONTROL, cacheControl);
 			ctx.contentType("application/java-archive");
 
-			ctx.future(() -> getResultStream(installerVersion, gameVersion, loaderVersion).thenApply(ctx::result));
+			// the jar is fully determined by the resolved versions, which are all part of the file name
+			final String etag = WebServer.createETag(false, filename);
+
+			if (WebServer.isNotModified(ctx, etag)) {
+				ctx.header(Header.CACHE_CONTROL, cacheControl);
+				return;
+			}
+
+			ctx.future(() -> getDownload(installerVersion, gameVersion, loaderVersion).thenAccept(download -> {
+				// the cache headers are only set by a successful send, so failed generations and 416s don't get cached
+				try {
+					download.send(ctx, etag, cacheControl);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
 		};
 	}
 
-	private static <V extends BaseVersion> String getAndValidateVersion(Context ctx, List<V> versions, String name) {
-		String version = ctx.pathParam(name);
-
-		for (V v : versions) {
-			if (version.equals("stable") && v.isStable()) {
-				return v.getVersion();
-			}
+	private static boolean isLoaderEligible(String loaderVersion) {
+		String[] versionSplit = loaderVersion.split("\\.");
 
-			if (v.getVersion().equals(version)) {
-				return version;
-			}
+		try {
+			// future 1.x versions or 0.12.x and newer
+			return Integer.parseInt(versionSplit[0]) > 0
+					|| Integer.parseInt(versionSplit[1]) >= 12;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return false;
 		}
+	}
+
+	private static boolean isInstallerEligible(String installerVersion) {
+		String[] versionSplit = installerVersion.split("\\.");
 
-		throw new BadRequestResponse("Unable to find valid version for " + name);
+		try {
+			// future 1.x versions or 0.8.x and newer
+			return Integer.parseInt(versionSplit[0]) > 0
+					|| Integer.parseInt(versionSplit[1]) >= 8;
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return false;
+		}
 	}
 
-	private static void validateLoaderVersion(String loaderVersion) {
-		String[] versionSplit = loaderVersion.split("\\.");
+	private static CompletableFuture<RangedDownload> getDownload(String installerVersion, String gameVersion, String loaderVersion) {
+		if (SYNTHESIZE_JARS) {
+			byte[] properties = createInstallProperties(loaderVersion, gameVersion);
 
-		// future 1.x versions
-		if (Integer.parseInt(versionSplit[0]) > 0) {
-			return;
+			return getInstallerTemplate(installerVersion).handle((template, exc) -> {
+				if (exc != null) {
+					exc.printStackTrace();
+					throw new InternalServerErrorResponse("Failed to generate bundled jar");
+				}
+
+				return template.open(properties);
+			});
 		}
 
-		// 0.12.x or newer
-		if (Integer.parseInt(versionSplit[1]) >= 12) {
-			return;
+		return openBundledJar(installerVersion, gameVersion, loaderVersion)
+				.exceptionallyCompose(exc -> {
+					// the installer or bundled jar got evicted between creating or finding it and opening it
+					return isNoSuchFile(exc) ? openBundledJar(installerVersion, gameVersion, loaderVersion) : CompletableFuture.failedFuture(exc);
+				})
+				.handle((download, exc) -> {
+					if (exc != null) {
+						exc.printStackTrace();
+						throw new InternalServerErrorResponse("Failed to generate bundled jar");
+					}
+
+					return download;
+				});
+	}
+
+	private static CompletableFuture<RangedDownload> openBundledJar(String installerVersion, String gameVersion, String loaderVersion) {
+		Path bundledJar = CACHE_DIR.resolve(String.format("%smc.%s-loader.%s-launcher.%s%s", BUNDLED_JAR_PREFIX, gameVersion, loaderVersion, installerVersion, BUNDLED_JAR_SUFFIX));
+
+		return getInstallerJar(installerVersion)
+				.thenCompose(installerJar -> getOrCreateFile(bundledJar, tmpFile -> writePropertiesToJar(installerJar, tmpFile, loaderVersion, gameVersion)))
+				.thenApply(jar -> {
+					try {
+						return RangedDownload.ofFile(jar);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	private static boolean isNoSuchFile(Throwable exc) {
+		for (Throwable t = exc; t != null; t = t.getCause()) {
+			if (t instanceof NoSuchFileException) return true;
 		}
 
-		throw new BadRequestResponse("Fabric loader 0.12 or higher is required for unattended server installs. Please use a newer fabric loader version, or the full installer.");
+		return false;
 	}
 
-	private static void validateInstallerVersion(String installerVersion) {
-		String[] versionSplit = installerVersion.split("\\.");
+	private static CompletableFuture<InstallerTemplate> getInstallerTemplate(String installerVersion) {
+		InstallerTemplate ret = INSTALLER_TEMPLATES.get(installerVersion);
 
-		// future 1.x versions
-		if (Integer.parseInt(versionSplit[0]) > 0) {
-			return;
+		if (ret != null) {
+			return CompletableFuture.completedFuture(ret);
 		}
 
-		// 0.8.x or newer
-		if (Integer.parseInt(versionSplit[1]) >= 8) {
-			return;
+		// racing first requests may each read the template, which is cheap compared to the shared download
+		return getInstallerJar(installerVersion).thenApplyAsync(installerJar -> {
+			try {
+				InstallerTemplate template = InstallerTemplate.read(installerJar);
+				INSTALLER_TEMPLATES.put(installerVersion, template);
+
+				return template;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, WORKER_EXECUTOR);
+	}
+
+	private static CompletableFuture<Path> getInstallerJar(String installerVersion) {
+		Path installerJar = CACHE_DIR.resolve(String.format("%s%s.jar", INSTALLER_JAR_PREFIX, installerVersion));
+
+		return getOrCreateFile(installerJar, tmpFile -> downloadInstallerJar(tmpFile, installerVersion));
+	}
+
+	/**
+	 * Get a file in the cache dir, creating it on the worker executor if it doesn't exist yet.
+	 *
+	 * <p>Concurrent requests for the same file share a single creation, while different files are created in parallel.
+	 */
+	private static CompletableFuture<Path> getOrCreateFile(Path file, AtomicFiles.ContentWriter writer) {
+		if (Files.exists(file)) {
+			DISK_CACHE.touch(file);
+			return CompletableFuture.completedFuture(file);
 		}
 
-		throw new BadRequestResponse("Fabric Installer 0.8 or higher is required for unattended server installs.");
+		return PENDING_FILES.submit(file, () -> {
+			// the file may have been completed between the existence check and claiming it
+			if (!Files.exists(file)) {
+				AtomicFiles.write(file, writer);
+				DISK_CACHE.add(file);
+			}
+
+			return file;
+		}, WORKER_EXECUTOR);
 	}
 
-	private static CompletableFuture<InputStream> getResultStream(String installerVersion, String gameVersion, String loaderVersion) {
-		Path bundledJar = CACHE_DIR.resolve(String.format("fabric-server-mc.%s-loader.%s-launcher.%s.jar", gameVersion, loaderVersion, installerVersion));
+	private static void downloadInstallerJar(Path jar, String installerVersion) throws IOException {
+		final String url = String.format(Reference.LOCAL_FABRIC_MAVEN_URL+"net/fabricmc/fabric-installer/%1$s/fabric-installer-%1$s-server.jar", installerVersion);
 
-		if (!Files.exists(bundledJar)) {
-			return CompletableFuture.supplyAsync(() -> {
-				try {
-					if (!Files.exists(bundledJar)) {
-						Path installerJar = getInstallerJar(installerVersion);
-						writePropertiesToJar(installerJar, bundledJar, loaderVersion, gameVersion);
-					}
+		System.out.println("Downloading: " + url);
+		UpstreamClient.downloadLarge(url, jar);
+	}
 
-					return Files.newInputStream(bundledJar);
-				} catch (IOException e) {
-					e.printStackTrace();
-					throw new InternalServerErrorResponse("Failed to generate bundled jar");
+	private static void writePropertiesToJar(Path inputJar, Path outputJar, String loaderVersion, String gameVersion) throws IOException {
+		// single sequential pass: the installer's entries are copied as-is, followed by install.properties and a new central directory
+		try (FileChannel input = FileChannel.open(inputJar, StandardOpenOption.READ);
+				FileChannel output = FileChannel.open(outputJar, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ZipTemplate.read(input, INSTALL_PROPERTIES).write(input, output, createInstallProperties(loaderVersion, gameVersion));
+		}
+	}
+
+	private static byte[] createInstallProperties(String loaderVersion, String gameVersion) {
+		return String.format("fabric-loader-version=%s\ngame-version=%s", loaderVersion, gameVersion).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Installer jar kept in memory for synthesizing bundled jars, consisting of the jar's bytes up to its central
+	 * directory, shared by all responses, and the layout for generating the tail with install.properties.
+	 */
+	private record InstallerTemplate(byte[] prefix, ZipTemplate layout) {
+		static InstallerTemplate read(Path installerJar) throws IOException {
+			try (FileChannel channel = FileChannel.open(installerJar, StandardOpenOption.READ)) {
+				ZipTemplate layout = ZipTemplate.read(channel, INSTALL_PROPERTIES);
+				ByteBuffer prefix = ByteBuffer.allocate(Math.toIntExact(layout.getPrefixLength()));
+
+				while (prefix.hasRemaining()) {
+					if (channel.read(prefix, prefix.position()) < 0) throw new IOException("installer jar truncated");
 				}
-			}, WORKER_EXECUTOR);
+
+				return new InstallerTemplate(prefix.array(), layout);
+			}
 		}
 
-		try {
-			return CompletableFuture.completedFuture(Files.newInputStream(bundledJar));
+		RangedDownload open(byte[] properties) {
+			try {
+				return RangedDownload.ofBytes(prefix, layout.createTail(properties));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private static boolean isCurrentCacheFile(Path file) {
+		String name = file.getFileName().toString();
+
+		return name.endsWith(".jar") && (!name.startsWith(BUNDLED_JAR_PREFIX) || name.endsWith(BUNDLED_JAR_SUFFIX));
+	}
+
+	private static void deleteLegacyJars() {
+		if (!Files.isDirectory(CACHE_DIR)) return;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(CACHE_DIR, BUNDLED_JAR_PREFIX + "*.jar")) {
+			for (Path file : files) {
+				if (!isCurrentCacheFile(file)) Files.deleteIfExists(file);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
-			throw new InternalServerErrorResponse("Failed to serve bundled jar");
 		}
 	}
 
-	private static Path getInstallerJar(String installerVersion) throws IOException {
-		Path installerJar = CACHE_DIR.resolve(String.format("fabric-installer-%s.jar", installerVersion));
+	/**
+	 * Installer jars used by the current database stay cached, they're the source for all bundled jars.
+	 */
+	private static boolean isReferencedInstallerJar(Path file) {
+		String name = file.getFileName().toString();
+		if (!name.startsWith(INSTALLER_JAR_PREFIX) || !name.endsWith(".jar")) return false;
 
-		if (Files.exists(installerJar)) {
-			return installerJar;
-		}
+		VersionDatabase database = FabricMeta.database;
 
-		return downloadInstallerJar(installerJar, installerVersion);
+		return database != null && database.getInstaller(name.substring(INSTALLER_JAR_PREFIX.length(), name.length() - 4)) != null;
 	}
 
-	private static Path downloadInstallerJar(Path jar, String installerVersion) throws IOException {
-		final String url = String.format(Reference.LOCAL_FABRIC_MAVEN_URL+"net/fabricmc/fabric-installer/%1$s/fabric-installer-%1$s-server.jar", installerVersion);
-
-		System.out.println("Downloading: " + url);
-		FileUtils.copyURLToFile(URI.create(url).toURL(), jar.toFile());
-		return jar;
+	/**
+	 * Valid versions for each of the path parameters, computed once per database.
+	 */
+	private record VersionIndex(Versions installer, Versions game, Versions loader) {
+		static VersionIndex create(VersionDatabase database) {
+			return new VersionIndex(Versions.create(database.installer, ServerBootstrap::isInstallerEligible),
+					Versions.create(database.getGameModels(), version -> true),
+					Versions.create(database.getAllLoader(), ServerBootstrap::isLoaderEligible));
+		}
 	}
 
-	private static void writePropertiesToJar(Path inputJar, Path outputJar, String loaderVersion, String gameVersion) throws IOException {
-		String data = String.format("fabric-loader-version=%s\ngame-version=%s", loaderVersion, gameVersion);
+	/**
+	 * @param eligibility version -> whether it can be used for unattended server installs
+	 * @param stable version "stable" resolves to, null if there is none
+	 */
+	private record Versions(Map<String, Boolean> eligibility, @Nullable String stable) {
+		static Versions create(List<? extends BaseVersion> versions, Predicate<String> eligibilityTest) {
+			Map<String, Boolean> eligibility = new HashMap<>(versions.size() * 4 / 3 + 1);
+			String stable = null;
+
+			for (BaseVersion v : versions) {
+				eligibility.putIfAbsent(v.getVersion(), eligibilityTest.test(v.getVersion()));
+				if (stable == null && v.isStable()) stable = v.getVersion();
+			}
 
-		Path workingFile = Paths.get(outputJar.toAbsolutePath() + ".tmp");
-		Files.copy(inputJar, workingFile);
+			return new Versions(eligibility, stable);
+		}
+
+		String resolve(Context ctx, String name) {
+			String version = ctx.pathParam(name);
+			if (version.equals("stable")) version = stable;
 
-		Map<String, String> env = new HashMap<>();
-		env.put("create", "true");
-		URI uri = URI.create("jar:" + workingFile.toUri());
+			if (version == null || !eligibility.containsKey(version)) {
+				throw new BadRequestResponse("Unable to find valid version for " + name);
+			}
 
-		try (FileSystem zipFs = FileSystems.newFileSystem(uri, env)) {
-			Files.write(zipFs.getPath("install.properties"), data.getBytes(StandardCharsets.UTF_8));
+			return version;
 		}
 
-		Files.copy(workingFile, outputJar);
-		Files.delete(workingFile);
+		boolean isEligible(String version) {
+			return eligibility.get(version);
+		}
 	}
 
 	private static int getCacheDuration(Context ctx) {
@@ -16,25 +16,61 @@
 
 package net.fabricmc.meta.web;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 import io.javalin.http.Header;
 import io.javalin.plugin.bundled.CorsPluginConfig;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.data.VersionDatabase;
 
 public class WebServer {
 	public static Javalin javalin;
 	public static Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+	public static final Gson COMPACT_GSON = new GsonBuilder().create();
+
+	private static final String FORMAT_PARAM = "format";
+
+	// route -> model factory for all routes whose response only depends on the database
+	private static final Map<String, Function<VersionDatabase, ?>> cachedRoutes = new ConcurrentHashMap<>();
+	// routes serving compact json unless the client asks for pretty printing
+	private static Set<String> compactRoutes = Collections.emptySet();
 
 	public static Javalin create() {
 		if (javalin != null) {
 			javalin.stop();
 		}
 
+		String compactRoutesConfig = FabricMeta.getConfig().get("compactJsonRoutes"); // comma separated, e.g. "/v2/versions,/v2/versions/yarn"
+		compactRoutes = compactRoutesConfig != null
+				? Arrays.stream(compactRoutesConfig.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toUnmodifiableSet())
+				: Collections.emptySet();
+
 		javalin = Javalin.create(config -> {
 			config.plugins.enableRouteOverview("/");
 			config.showJavalinBanner = false;
@@ -47,32 +83,279 @@ public class WebServer {
 		return javalin;
 	}
 
+	/**
+	 * Start serving the routes registered by {@link #create()}.
+	 */
 	public static void start() {
-		assert javalin == null;
-		create().start(5555);
+		if (javalin == null) create();
+		javalin.start(5555);
 	}
 
 	public static <T> void jsonGet(String route, Supplier<T> supplier) {
 		javalin.get(route, ctx -> {
+			boolean compact = isCompact(ctx, route);
+			String etag = prepareDynamicResponse(ctx, compact);
+			if (isNotModified(ctx, etag)) return;
+
 			T object = supplier.get();
-			handleJson(ctx, object);
+			handleJson(ctx, object, etag, compact);
 		});
 	}
 
 	public static <T> void jsonGet(String route, Function<Context, T> supplier) {
 		javalin.get(route, ctx -> {
+			boolean compact = isCompact(ctx, route);
+			String etag = prepareDynamicResponse(ctx, compact);
+			if (isNotModified(ctx, etag)) return;
+
 			T object = supplier.apply(ctx);
-			handleJson(ctx, object);
+			handleJson(ctx, object, etag, compact);
+		});
+	}
+
+	/**
+	 * Register a route serving a model that only depends on the database, rendered once per database.
+	 */
+	public static <T> void cachedJsonGet(String route, Function<VersionDatabase, T> modelFactory) {
+		cachedRoutes.put(route, modelFactory);
+
+		javalin.get(route, ctx -> getCachedJson(FabricMeta.database, route).getResponse(isCompact(ctx, route)).send(ctx));
+	}
+
+	/**
+	 * Register a route like {@link #cachedJsonGet(String, Function)}, but serve requests with query parameters through
+	 * {@code paramHandler}, which receives the cached model.
+	 */
+	public static <T> void cachedJsonGet(String route, Function<VersionDatabase, T> modelFactory, BiFunction<Context, T, ?> paramHandler) {
+		cachedRoutes.put(route, modelFactory);
+
+		javalin.get(route, ctx -> {
+			CachedJson json = getCachedJson(FabricMeta.database, route);
+			boolean compact = isCompact(ctx, route);
+
+			if (!hasQueryParams(ctx)) {
+				json.getResponse(compact).send(ctx);
+			} else {
+				String etag = prepareDynamicResponse(ctx, compact);
+				if (isNotModified(ctx, etag)) return;
+
+				@SuppressWarnings("unchecked")
+				T model = (T) json.getModel();
+				handleJson(ctx, paramHandler.apply(ctx, model), etag, compact);
+			}
 		});
 	}
 
-	private static void handleJson(Context ctx, Object object) {
+	/**
+	 * Render all cached routes for a new database before it gets published.
+	 *
+	 * <p>Responses are taken over per route: a route keeps its previous response and ETag if its whole model is equal,
+	 * any change within it, e.g. a single new yarn build, renders the route again. Its parts aren't reused, as the
+	 * compressed variants and the ETag have to be computed over the whole body anyway.
+	 *
+	 * @param previous the database being replaced, null if there is none
+	 */
+	public static void prepareCachedResponses(VersionDatabase database, @Nullable VersionDatabase previous) {
+		for (String route : cachedRoutes.keySet()) {
+			CachedJson json = database.getDerived("json:".concat(route), db -> {
+				Object model = cachedRoutes.get(route).apply(db);
+				CachedJson prev = previous != null ? previous.getDerivedIfPresent("json:".concat(route)) : null;
+
+				return prev != null && prev.getModel().equals(model) ? prev : new CachedJson(model);
+			});
+
+			json.getResponse(false);
+			json.getResponse(true);
+		}
+
+		getDatabaseTag(database);
+	}
+
+	/**
+	 * Check whether the responses of all cached routes have been rendered for the database.
+	 */
+	@VisibleForTesting
+	public static boolean isPrepared(VersionDatabase database) {
+		for (String route : cachedRoutes.keySet()) {
+			CachedJson json = database.getDerivedIfPresent("json:".concat(route));
+			if (json == null || !json.isRendered()) return false;
+		}
+
+		return !cachedRoutes.isEmpty();
+	}
+
+	private static CachedJson getCachedJson(VersionDatabase database, String route) {
+		return database.getDerived("json:".concat(route), db -> new CachedJson(cachedRoutes.get(route).apply(db)));
+	}
+
+	/**
+	 * Check for query parameters other than the output format selection.
+	 */
+	static boolean hasQueryParams(Context ctx) {
+		Map<String, ?> queryParams = ctx.queryParamMap();
+
+		return queryParams.size() > (queryParams.containsKey(FORMAT_PARAM) ? 1 : 0);
+	}
+
+	/**
+	 * Determine whether to serve compact instead of pretty-printed json.
+	 *
+	 * <p>Clients pick either with {@code ?format=compact} / {@code ?format=pretty} or a {@code format} parameter on the
+	 * accepted media type, e.g. {@code Accept: application/json; format=compact}. Otherwise the route's configured
+	 * default applies.
+	 */
+	private static boolean isCompact(Context ctx, String route) {
+		String format = ctx.queryParam(FORMAT_PARAM);
+		if (format == null) format = getAcceptedFormat(ctx.header(Header.ACCEPT));
+
+		if ("compact".equals(format)) return true;
+		if ("pretty".equals(format)) return false;
+
+		return compactRoutes.contains(route);
+	}
+
+	@Nullable
+	private static String getAcceptedFormat(@Nullable String accept) {
+		if (accept == null) return null;
+
+		for (String mediaRange : accept.split(",")) {
+			String[] parts = mediaRange.split(";");
+
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i];
+				int sep = param.indexOf('=');
+				if (sep < 0 || !param.substring(0, sep).trim().equalsIgnoreCase(FORMAT_PARAM)) continue;
+
+				// parameter names are case-insensitive, values may be quoted strings
+				String value = param.substring(sep + 1).trim();
+
+				if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+					value = value.substring(1, value.length() - 1);
+				}
+
+				return value;
+			}
+		}
+
+		return null;
+	}
+
+	private static void handleJson(Context ctx, Object object, String etag, boolean compact) throws IOException {
+		if (object instanceof CachedJson json) {
+			json.getResponse(compact).send(ctx);
+			return;
+		}
+
 		if (object == null) {
 			object = new Object();
 			ctx.status(400);
 		}
 
-		String response = GSON.toJson(object);
-		ctx.contentType("application/json").header(Header.CACHE_CONTROL, "public, max-age=60").result(response);
+		// errors aren't cacheable, so they don't get a validator either
+		if (ctx.statusCode() < 300) ctx.header(Header.ETAG, etag);
+
+		ctx.contentType("application/json");
+
+		// Serialize straight into the (possibly compressing) response stream instead of materializing the whole response,
+		// the encoder and Jetty's output buffer bound the memory used regardless of the response size
+		Gson gson = compact ? COMPACT_GSON : GSON;
+		Writer writer = new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8);
+		JsonWriter jsonWriter = gson.newJsonWriter(writer);
+		gson.toJson(object, object.getClass(), jsonWriter);
+		jsonWriter.flush();
+	}
+
+	/**
+	 * Set the headers a dynamic route's responses share, including 304 responses, and get the response's ETag.
+	 */
+	private static String prepareDynamicResponse(Context ctx, boolean compact) {
+		ctx.header(Header.CACHE_CONTROL, "public, max-age=60").header(Header.VARY, Header.ACCEPT);
+
+		return getDynamicETag(ctx, compact);
+	}
+
+	/**
+	 * Get an ETag for a response that is fully determined by the current database and the request's path and query.
+	 *
+	 * <p>This allows answering conditional requests without computing the response first. The tag is weak as the body
+	 * gets compressed on the fly, so the bytes sent for it differ by content encoding.
+	 */
+	private static String getDynamicETag(Context ctx, boolean compact) {
+		return createETag(true, getDatabaseTag(FabricMeta.database), ctx.path(), Objects.toString(ctx.queryString(), ""), Boolean.toString(compact));
+	}
+
+	/**
+	 * Get a tag that changes whenever any of the database's exposed content changes.
+	 *
+	 * <p>It's combined from the ETags of the cached routes, which are computed with the responses anyway.
+	 */
+	static String getDatabaseTag(VersionDatabase database) {
+		return database.getDerived("tag", db -> {
+			List<String> routes = new ArrayList<>(cachedRoutes.keySet());
+			routes.sort(null);
+
+			String[] tags = new String[routes.size()];
+
+			for (int i = 0; i < tags.length; i++) {
+				tags[i] = getCachedJson(db, routes.get(i)).getResponse(false).getETag();
+			}
+
+			return createETag(false, tags);
+		});
+	}
+
+	/**
+	 * Check the request's If-None-Match header against the response's ETag, finishing with 304 Not Modified on a match.
+	 *
+	 * @return whether the request has been finished
+	 */
+	static boolean isNotModified(Context ctx, String etag) {
+		String ifNoneMatch = ctx.header(Header.IF_NONE_MATCH);
+		if (ifNoneMatch == null || !matchesETag(ifNoneMatch, etag)) return false;
+
+		ctx.status(304).header(Header.ETAG, etag);
+
+		return true;
+	}
+
+	private static boolean matchesETag(String header, String etag) {
+		// If-None-Match uses weak comparison, so W/ prefixes are ignored on both sides
+		String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+
+		for (String candidate : header.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) return true;
+			if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+			if (candidate.equals(opaqueTag)) return true;
+		}
+
+		return false;
+	}
+
+	static String createETag(boolean weak, String... parts) {
+		MessageDigest digest = createDigest();
+
+		for (String part : parts) {
+			digest.update(part.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+
+		return formatETag(weak, digest.digest());
+	}
+
+	static String createETag(byte[] content) {
+		return formatETag(false, createDigest().digest(content));
+	}
+
+	private static String formatETag(boolean weak, byte[] hash) {
+		return (weak ? "W/\"" : "\"").concat(HexFormat.of().formatHex(hash, 0, 16)).concat("\"");
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
 	}
 }
@@ -16,11 +16,19 @@
 
 package net.fabricmc.meta.web.models;
 
+import java.io.IOException;
 import java.util.function.Predicate;
 
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Immutable, equal versions may be shared between database generations.
+ */
+@JsonAdapter(VersionTypeAdapterFactory.class)
 public class BaseVersion implements Predicate<String> {
-	String version;
-	boolean stable = false;
+	final String version;
+	final boolean stable;
 
 	public BaseVersion(String version, boolean stable) {
 		this.version = version;
@@ -35,12 +43,31 @@ public class BaseVersion implements Predicate<String> {
 		return stable;
 	}
 
-	public void setStable(boolean stable) {
-		this.stable = stable;
-	}
-
 	@Override
 	public boolean test(String s) {
 		return version.equals(s);
 	}
+
+	/**
+	 * Write the JSON properties, subclasses write theirs before calling super like reflective serialization would.
+	 */
+	void writeProperties(JsonWriter writer) throws IOException {
+		writer.name("version").value(version);
+		writer.name("stable").value(stable);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) return true;
+		if (obj == null || obj.getClass() != getClass()) return false;
+
+		BaseVersion other = (BaseVersion) obj;
+
+		return version.equals(other.version) && stable == other.stable;
+	}
+
+	@Override
+	public int hashCode() {
+		return version.hashCode() * 31 + Boolean.hashCode(stable);
+	}
 }
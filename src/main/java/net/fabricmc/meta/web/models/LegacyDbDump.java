@@ -18,22 +18,8 @@ package net.fabricmc.meta.web.models;
 
 import java.util.List;
 
-public class LegacyDbDump {
-	public final List<BaseVersion> game;
-	public final List<MavenBuildGameVersion> mappings;
-	public final List<MavenVersion> intermediary;
-	public final List<MavenBuildVersion> loader;
-	public final List<MavenUrlVersion> installer;
-
-	public LegacyDbDump(List<BaseVersion> game,
-			List<MavenBuildGameVersion> mappings,
-			List<MavenVersion> intermediary,
-			List<MavenBuildVersion> loader,
-			List<MavenUrlVersion> installer) {
-		this.game = game;
-		this.mappings = mappings;
-		this.intermediary = intermediary;
-		this.loader = loader;
-		this.installer = installer;
-	}
-}
+public record LegacyDbDump(List<BaseVersion> game,
+		List<MavenBuildGameVersion> mappings,
+		List<MavenVersion> intermediary,
+		List<MavenBuildVersion> loader,
+		List<MavenUrlVersion> installer) { }
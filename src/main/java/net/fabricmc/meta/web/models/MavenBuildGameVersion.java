@@ -16,14 +16,20 @@
 
 package net.fabricmc.meta.web.models;
 
+import java.io.IOException;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
 import net.fabricmc.meta.utils.YarnVersionParser;
 
+@JsonAdapter(VersionTypeAdapterFactory.class)
 public class MavenBuildGameVersion extends MavenBuildVersion {
-	String gameVersion;
+	final String gameVersion; // interned, shared by all builds for a game version
 
-	public MavenBuildGameVersion(String maven) {
-		super(maven);
-		gameVersion = new YarnVersionParser(maven.split(":")[2]).getMinecraftVersion();
+	public MavenBuildGameVersion(String maven, boolean stable) {
+		super(maven, stable);
+		gameVersion = new YarnVersionParser(version).getMinecraftVersion().intern();
 	}
 
 	public String getGameVersion() {
@@ -34,4 +40,10 @@ public class MavenBuildGameVersion extends MavenBuildVersion {
 	public boolean test(String s) {
 		return getGameVersion().equals(s);
 	}
+
+	@Override
+	void writeProperties(JsonWriter writer) throws IOException {
+		writer.name("gameVersion").value(gameVersion);
+		super.writeProperties(writer);
+	}
 }
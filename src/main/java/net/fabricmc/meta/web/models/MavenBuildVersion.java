@@ -16,13 +16,18 @@
 
 package net.fabricmc.meta.web.models;
 
+import java.io.IOException;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+@JsonAdapter(VersionTypeAdapterFactory.class)
 public class MavenBuildVersion extends MavenVersion {
-	String separator;
-	int build;
+	final String separator;
+	final int build;
 
-	public MavenBuildVersion(String maven) {
-		super(maven);
-		String version = maven.split(":")[2];
+	public MavenBuildVersion(String maven, boolean stable) {
+		super(maven, stable);
 
 		if (version.contains("+build.")) {
 			separator = "+build.";
@@ -40,4 +45,11 @@ public class MavenBuildVersion extends MavenVersion {
 	public int getBuild() {
 		return build;
 	}
+
+	@Override
+	void writeProperties(JsonWriter writer) throws IOException {
+		writer.name("separator").value(separator);
+		writer.name("build").value(build);
+		super.writeProperties(writer);
+	}
 }
@@ -16,20 +16,36 @@
 
 package net.fabricmc.meta.web.models;
 
+import java.io.IOException;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
 import net.fabricmc.meta.utils.Reference;
 
+@JsonAdapter(VersionTypeAdapterFactory.class)
 public class MavenUrlVersion extends MavenVersion {
-	public final String url;
-
-	public MavenUrlVersion(String maven) {
-		super(maven);
-		String[] split = maven.split(":");
-		this.url = String.format("%s%s/%s/%s/%s-%s.jar", Reference.FABRIC_MAVEN_URL,
-				split[0].replace('.', '/'),
-				split[1],
-				split[2],
-				split[1],
-				split[2]
+	public MavenUrlVersion(String maven, boolean stable) {
+		super(maven, stable);
+	}
+
+	public String getUrl() {
+		int separator = prefix.indexOf(':');
+		String group = prefix.substring(0, separator);
+		String artifact = prefix.substring(separator + 1, prefix.length() - 1);
+
+		return String.format("%s%s/%s/%s/%s-%s.jar", Reference.FABRIC_MAVEN_URL,
+				group.replace('.', '/'),
+				artifact,
+				version,
+				artifact,
+				version
 				);
 	}
+
+	@Override
+	void writeProperties(JsonWriter writer) throws IOException {
+		writer.name("url").value(getUrl());
+		super.writeProperties(writer);
+	}
 }
@@ -16,12 +16,21 @@
 
 package net.fabricmc.meta.web.models;
 
+import java.io.IOException;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Maven artifact version, the coordinate is derived from the shared group:artifact: prefix when needed.
+ */
+@JsonAdapter(VersionTypeAdapterFactory.class)
 public class MavenVersion extends BaseVersion {
-	String maven;
+	final String prefix; // interned
 
 	public MavenVersion(String maven, boolean stable) {
-		super(maven.split(":")[2], stable);
-		this.maven = maven;
+		super(maven.substring(maven.lastIndexOf(':') + 1), stable);
+		this.prefix = maven.substring(0, maven.lastIndexOf(':') + 1).intern();
 	}
 
 	public MavenVersion(String maven) {
@@ -29,6 +38,23 @@ public class MavenVersion extends BaseVersion {
 	}
 
 	public String getMaven() {
-		return maven;
+		return prefix.concat(version);
+	}
+
+	@Override
+	void writeProperties(JsonWriter writer) throws IOException {
+		writer.name("maven").value(getMaven());
+		super.writeProperties(writer);
+	}
+
+	// the fields of subclasses are derived from the maven coordinate
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && prefix.equals(((MavenVersion) obj).prefix);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode() * 31 + prefix.hashCode();
 	}
 }
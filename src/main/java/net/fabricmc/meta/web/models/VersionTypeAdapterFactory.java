@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.web.models;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Serializes versions including the properties derived from the compact in-memory form, e.g. the maven coordinate.
+ *
+ * <p>Only writing is customized, reading is left to Gson's default handling as versions are never read back: the
+ * database snapshot stores the upstream content they're parsed from.
+ */
+final class VersionTypeAdapterFactory implements TypeAdapterFactory {
+	@Override
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		return new TypeAdapter<T>() {
+			@Override
+			public void write(JsonWriter writer, T value) throws IOException {
+				writer.beginObject();
+				((BaseVersion) value).writeProperties(writer);
+				writer.endObject();
+			}
+
+			@Override
+			public T read(JsonReader reader) throws IOException {
+				return gson.getDelegateAdapter(VersionTypeAdapterFactory.this, type).read(reader);
+			}
+		};
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.utils.BoundedCache;
+
+public class BoundedCacheTests {
+	@Test
+	void evictLeastRecentlyUsed() {
+		BoundedCache<String, String> cache = new BoundedCache<>(2);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		assertEquals("1", cache.get("a"));
+
+		cache.put("c", "3");
+		assertEquals("1", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("3", cache.get("c"));
+	}
+
+	@Test
+	void evictByWeight() {
+		BoundedCache<String, byte[]> cache = new BoundedCache<>(10, value -> value.length);
+		cache.put("a", new byte[4]);
+		cache.put("b", new byte[4]);
+		cache.put("c", new byte[4]);
+		assertNull(cache.get("a"));
+		assertEquals(4, cache.get("b").length);
+
+		// replacing an entry only counts the new weight
+		cache.put("b", new byte[6]);
+		assertEquals(6, cache.get("b").length);
+		assertEquals(4, cache.get("c").length);
+
+		// heavier than the limit on its own, the entries read since insertion are kept
+		cache.put("d", new byte[11]);
+		assertNull(cache.get("d"));
+		assertEquals(6, cache.get("b").length);
+		assertEquals(4, cache.get("c").length);
+	}
+
+	@Test
+	void evictUnreadFirst() {
+		BoundedCache<String, String> cache = new BoundedCache<>(3);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.put("c", "3");
+		cache.get("a");
+		cache.get("c");
+
+		cache.put("d", "4");
+		assertNull(cache.get("b"));
+
+		// a was requeued before and not read since, c and d were read
+		cache.get("d");
+		cache.put("e", "5");
+		assertNull(cache.get("a"));
+		assertEquals("3", cache.get("c"));
+		assertEquals("4", cache.get("d"));
+		assertEquals("5", cache.get("e"));
+	}
+}
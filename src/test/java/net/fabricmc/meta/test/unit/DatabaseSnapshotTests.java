@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.meta.data.DatabaseSnapshot;
+import net.fabricmc.meta.utils.UpstreamResource;
+
+public class DatabaseSnapshotTests {
+	private static final String URL_A = "https://example.com/a.xml";
+	private static final String URL_B = "https://example.com/b.json";
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void roundTrip() throws IOException {
+		Path file = tempDir.resolve("database.snapshot");
+		DatabaseSnapshot.write(file, List.of(resource(URL_A, "a"), resource(URL_B, "b")));
+
+		UpstreamResource a = new UpstreamResource(URL_A);
+		UpstreamResource b = new UpstreamResource(URL_B);
+		assertTrue(DatabaseSnapshot.read(file, List.of(b, a)));
+		assertArrayEquals(bytes("a"), a.getContent());
+		assertArrayEquals(bytes("b"), b.getContent());
+	}
+
+	@Test
+	void missingSource() throws IOException {
+		Path file = tempDir.resolve("database.snapshot");
+		assertFalse(DatabaseSnapshot.read(file, List.of(new UpstreamResource(URL_A))));
+
+		DatabaseSnapshot.write(file, List.of(resource(URL_A, "a")));
+
+		UpstreamResource a = new UpstreamResource(URL_A);
+		UpstreamResource b = new UpstreamResource(URL_B);
+		assertFalse(DatabaseSnapshot.read(file, List.of(a, b)));
+		assertNull(a.getContent());
+	}
+
+	@Test
+	void rejectInvalidContent() throws IOException {
+		Path file = tempDir.resolve("database.snapshot");
+		DatabaseSnapshot.write(file, List.of(resource(URL_A, "a")));
+
+		UpstreamResource a = new UpstreamResource(URL_A, content -> {
+			throw new IOException("invalid");
+		});
+		assertThrows(IOException.class, () -> DatabaseSnapshot.read(file, List.of(a)));
+		assertNull(a.getContent());
+	}
+
+	@Test
+	void rejectCorruptFile() throws IOException {
+		Path file = tempDir.resolve("database.snapshot");
+		DatabaseSnapshot.write(file, List.of(resource(URL_A, "a".repeat(1000))));
+		byte[] data = Files.readAllBytes(file);
+
+		Files.write(file, Arrays.copyOf(data, data.length / 2));
+		assertThrows(IOException.class, () -> DatabaseSnapshot.read(file, List.of(new UpstreamResource(URL_A))));
+
+		Files.write(file, bytes("not a snapshot"));
+		assertThrows(IOException.class, () -> DatabaseSnapshot.read(file, List.of(new UpstreamResource(URL_A))));
+
+		// lengths beyond the end of the file or negative ones
+		for (int length : new int[] { Integer.MAX_VALUE, -1 }) {
+			try (DataOutputStream os = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+				os.writeInt(0x464d4442);
+				os.writeInt(1);
+				os.writeInt(1);
+				os.writeUTF(URL_A);
+				os.writeInt(length);
+				os.write(bytes("a"));
+			}
+
+			assertThrows(IOException.class, () -> DatabaseSnapshot.read(file, List.of(new UpstreamResource(URL_A))));
+		}
+	}
+
+	private static UpstreamResource resource(String url, String content) throws IOException {
+		UpstreamResource ret = new UpstreamResource(url);
+		ret.setContent(bytes(content));
+
+		return ret;
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.meta.utils.DiskCache;
+
+public class DiskCacheTests {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void evictLeastRecentlyUsed() throws Exception {
+		Path a = createFile("a.dat", 1000);
+		Path b = createFile("b.dat", 2000);
+		Path c = createFile("c.dat", 3000);
+		Path other = createFile("other.txt", 0);
+
+		// the initial scan exceeds the quota with the third file
+		DiskCache cache = new DiskCache(tempDir, file -> file.toString().endsWith(".dat"), file -> false, 25, 100);
+		awaitDeleted(a);
+		assertTrue(Files.exists(b));
+		assertTrue(Files.exists(c));
+		assertTrue(Files.exists(other));
+
+		// accesses move files to the back of the queue
+		cache.touch(b);
+		Path d = createFile("d.dat", System.currentTimeMillis());
+		cache.add(d);
+		awaitDeleted(c);
+		assertTrue(Files.exists(b));
+		assertTrue(Files.exists(d));
+	}
+
+	@Test
+	void evictByCount() throws Exception {
+		Path a = createFile("a.dat", 1000);
+		Path b = createFile("b.dat", 2000);
+
+		new DiskCache(tempDir, file -> true, file -> false, Long.MAX_VALUE, 1);
+		awaitDeleted(a);
+		assertTrue(Files.exists(b));
+	}
+
+	@Test
+	void keepPinned() throws Exception {
+		Path a = createFile("a.dat", 1000);
+		Path b = createFile("b.dat", 2000);
+		Path c = createFile("c.dat", 3000);
+
+		new DiskCache(tempDir, file -> true, file -> file.equals(a.toAbsolutePath()), 25, 100);
+		awaitDeleted(b);
+		assertTrue(Files.exists(a));
+		assertTrue(Files.exists(c));
+	}
+
+	private Path createFile(String name, long lastModified) throws IOException {
+		Path ret = tempDir.resolve(name);
+		Files.write(ret, new byte[10]);
+		Files.setLastModifiedTime(ret, FileTime.fromMillis(lastModified));
+
+		return ret;
+	}
+
+	private static void awaitDeleted(Path file) throws InterruptedException {
+		// eviction runs in the background
+		for (int i = 0; i < 500 && Files.exists(file); i++) {
+			Thread.sleep(10);
+		}
+
+		assertTrue(Files.notExists(file));
+	}
+}
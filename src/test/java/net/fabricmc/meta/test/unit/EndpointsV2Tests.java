@@ -17,6 +17,7 @@
 package net.fabricmc.meta.test.unit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.javalin.testtools.JavalinTest;
 import okhttp3.Response;
@@ -41,4 +42,10 @@ public class EndpointsV2Tests {
 			String body = response.body().string();
 		});
 	}
+
+	@Test
+	void cachedResponsesPrepared() {
+		// the first database is published with all of its cached routes already rendered
+		assertTrue(WebServer.isPrepared(FabricMeta.database));
+	}
 }
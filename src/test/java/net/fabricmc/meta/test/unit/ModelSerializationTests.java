@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.web.WebServer;
+import net.fabricmc.meta.web.models.BaseVersion;
+import net.fabricmc.meta.web.models.LoaderInfoV2;
+import net.fabricmc.meta.web.models.MavenBuildGameVersion;
+import net.fabricmc.meta.web.models.MavenBuildVersion;
+import net.fabricmc.meta.web.models.MavenUrlVersion;
+import net.fabricmc.meta.web.models.MavenVersion;
+
+/**
+ * Checks the models serialize exactly like the reflective serialization of their former fields, including the order.
+ */
+public class ModelSerializationTests {
+	private static final MavenBuildVersion LOADER = new MavenBuildVersion("net.fabricmc:fabric-loader:0.15.3", true);
+	private static final MavenVersion INTERMEDIARY = new MavenVersion("net.fabricmc:intermediary:1.20.4", true);
+
+	@Test
+	void baseVersion() {
+		assertJson("{\"version\":\"1.20.4\",\"stable\":true}", new BaseVersion("1.20.4", true));
+	}
+
+	@Test
+	void mavenVersion() {
+		assertJson("{\"maven\":\"net.fabricmc:intermediary:1.20.4\",\"version\":\"1.20.4\",\"stable\":true}", INTERMEDIARY);
+	}
+
+	@Test
+	void mavenBuildVersion() {
+		assertJson("{\"separator\":\".\",\"build\":3,\"maven\":\"net.fabricmc:fabric-loader:0.15.3\",\"version\":\"0.15.3\",\"stable\":true}", LOADER);
+		assertJson("{\"separator\":\"+build.\",\"build\":2,\"maven\":\"net.fabricmc:fabric-loader:0.3.0+build.2\",\"version\":\"0.3.0+build.2\",\"stable\":false}",
+				new MavenBuildVersion("net.fabricmc:fabric-loader:0.3.0+build.2", false));
+	}
+
+	@Test
+	void mavenBuildGameVersion() {
+		assertJson("{\"gameVersion\":\"1.20.4\",\"separator\":\"+build.\",\"build\":3,\"maven\":\"net.fabricmc:yarn:1.20.4+build.3\",\"version\":\"1.20.4+build.3\",\"stable\":true}",
+				new MavenBuildGameVersion("net.fabricmc:yarn:1.20.4+build.3", true));
+	}
+
+	@Test
+	void mavenUrlVersion() {
+		assertJson("{\"url\":\"https://maven.fabricmc.net/net/fabricmc/fabric-installer/1.0.0/fabric-installer-1.0.0.jar\",\"maven\":\"net.fabricmc:fabric-installer:1.0.0\",\"version\":\"1.0.0\",\"stable\":true}",
+				new MavenUrlVersion("net.fabricmc:fabric-installer:1.0.0", true));
+	}
+
+	@Test
+	void loaderInfo() {
+		assertJson("{\"loader\":{\"separator\":\".\",\"build\":3,\"maven\":\"net.fabricmc:fabric-loader:0.15.3\",\"version\":\"0.15.3\",\"stable\":true},"
+				+ "\"intermediary\":{\"maven\":\"net.fabricmc:intermediary:1.20.4\",\"version\":\"1.20.4\",\"stable\":true}}",
+				new LoaderInfoV2(LOADER, INTERMEDIARY));
+
+		String pretty = """
+				{
+				  "loader": {
+				    "separator": ".",
+				    "build": 3,
+				    "maven": "net.fabricmc:fabric-loader:0.15.3",
+				    "version": "0.15.3",
+				    "stable": true
+				  },
+				  "intermediary": {
+				    "maven": "net.fabricmc:intermediary:1.20.4",
+				    "version": "1.20.4",
+				    "stable": true
+				  }
+				}""";
+		assertEquals(pretty, WebServer.GSON.toJson(new LoaderInfoV2(LOADER, INTERMEDIARY)));
+	}
+
+	@Test
+	void mixedList() {
+		// a list typed by the base class still serializes each element by its runtime type
+		List<BaseVersion> list = List.of(new BaseVersion("23w13a_or_b", false), new MavenBuildVersion("net.fabricmc:fabric-loader:0.3.0+build.2", false));
+		assertJson("[{\"version\":\"23w13a_or_b\",\"stable\":false},{\"separator\":\"+build.\",\"build\":2,\"maven\":\"net.fabricmc:fabric-loader:0.3.0+build.2\",\"version\":\"0.3.0+build.2\",\"stable\":false}]", list);
+	}
+
+	private static void assertJson(String expected, Object model) {
+		assertEquals(expected, WebServer.COMPACT_GSON.toJson(model));
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.utils.PendingTasks;
+
+public class PendingTasksTests {
+	@Test
+	void shareTaskInProgress() {
+		PendingTasks<String, Integer> tasks = new PendingTasks<>();
+		List<Runnable> queued = new ArrayList<>();
+		AtomicInteger runs = new AtomicInteger();
+
+		CompletableFuture<Integer> a = tasks.submit("a", runs::incrementAndGet, queued::add);
+		CompletableFuture<Integer> a2 = tasks.submit("a", runs::incrementAndGet, queued::add);
+		CompletableFuture<Integer> b = tasks.submit("b", runs::incrementAndGet, queued::add);
+		assertSame(a, a2);
+		assertNotSame(a, b);
+		assertEquals(2, queued.size());
+
+		queued.forEach(Runnable::run);
+		assertEquals(2, runs.get());
+
+		// done tasks run again
+		assertEquals(3, tasks.submit("a", runs::incrementAndGet, Runnable::run).join());
+	}
+
+	@Test
+	void failure() {
+		PendingTasks<String, Integer> tasks = new PendingTasks<>();
+		CompletableFuture<Integer> failed = tasks.submit("a", () -> {
+			throw new IOException("failed");
+		}, Runnable::run);
+
+		CompletionException exc = assertThrows(CompletionException.class, failed::join);
+		assertInstanceOf(IOException.class, exc.getCause());
+
+		CompletableFuture<Integer> retry = tasks.submit("a", () -> 1, Runnable::run);
+		assertFalse(retry.isCompletedExceptionally());
+		assertEquals(1, retry.join());
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.utils.Reference;
+import net.fabricmc.meta.web.ProfileTemplate;
+
+public class ProfileTemplateTests {
+	// launcher meta v2 with a main class per side
+	private static final String LAUNCHER_META = """
+			{
+			  "version": 2,
+			  "libraries": {
+			    "client": [],
+			    "common": [
+			      {"name": "net.fabricmc:tiny-mappings-parser:0.3.0+build.17", "url": "https://maven.fabricmc.net/"},
+			      {"name": "org.ow2.asm:asm:9.6", "url": "https://maven.fabricmc.net/", "md5": "6f8bccf756f170d4185bb24c8c2d2020"}
+			    ],
+			    "server": [
+			      {"_comment": "jimfs in fabric-server-launch requires guava on the system classloader", "name": "com.google.guava:guava:21.0", "url": "https://maven.fabricmc.net/"}
+			    ]
+			  },
+			  "mainClass": {
+			    "client": "net.fabricmc.loader.impl.launch.knot.KnotClient",
+			    "server": "net.fabricmc.loader.impl.launch.knot.KnotServer"
+			  }
+			}""";
+	// launcher meta v1 with a single main class and no common libraries
+	private static final String LEGACY_LAUNCHER_META = """
+			{
+			  "version": 1,
+			  "libraries": {"client": [{"name": "a:b:1", "url": "https://example.com/\\"quoted\\"/"}], "common": []},
+			  "mainClass": "net.fabricmc.loader.launch.knot.KnotClient"
+			}""";
+
+	@Test
+	void matchesProfileTree() {
+		for (String meta : new String[] { LAUNCHER_META, LEGACY_LAUNCHER_META }) {
+			for (String side : new String[] { "client", "server" }) {
+				for (String intermediary : new String[] { "net.fabricmc:intermediary:1.20.4", null }) {
+					JsonObject launcherMeta = JsonParser.parseString(meta).getAsJsonObject();
+					String expected = buildProfileTree(launcherMeta.deepCopy(), side, intermediary).toString();
+					String actual = ProfileTemplate.create(launcherMeta, side).toJson("fabric-loader-0.15.3-1.20.4", "1.20.4", "2024-01-01T00:00:00+0000", intermediary, "net.fabricmc:fabric-loader:0.15.3");
+
+					assertEquals(expected, actual);
+				}
+			}
+		}
+	}
+
+	@Test
+	void escaping() {
+		JsonObject launcherMeta = JsonParser.parseString(LAUNCHER_META).getAsJsonObject();
+		String expected = buildProfileTree(launcherMeta.deepCopy(), "client", null, "a\"b\\c<é>", "1.20\n").toString();
+		String actual = ProfileTemplate.create(launcherMeta, "client").toJson("a\"b\\c<é>", "1.20\n", "2024-01-01T00:00:00+0000", null, "net.fabricmc:fabric-loader:0.15.3");
+
+		assertEquals(expected, actual);
+	}
+
+	private static JsonObject buildProfileTree(JsonObject launcherMeta, String side, @Nullable String intermediary) {
+		return buildProfileTree(launcherMeta, side, intermediary, "fabric-loader-0.15.3-1.20.4", "1.20.4");
+	}
+
+	/**
+	 * The profile as it was built before templates were introduced.
+	 */
+	private static JsonObject buildProfileTree(JsonObject launcherMeta, String side, @Nullable String intermediary, String profileName, String gameVersion) {
+		JsonObject librariesObject = launcherMeta.get("libraries").getAsJsonObject();
+		JsonArray libraries = (JsonArray) librariesObject.get("common");
+
+		if (intermediary != null) {
+			libraries.add(formatLibrary(intermediary));
+		}
+
+		libraries.add(formatLibrary("net.fabricmc:fabric-loader:0.15.3"));
+
+		if (librariesObject.has(side)) {
+			libraries.addAll(librariesObject.get(side).getAsJsonArray());
+		}
+
+		String currentTime = "2024-01-01T00:00:00+0000";
+
+		JsonObject profile = new JsonObject();
+		profile.addProperty("id", profileName);
+		profile.addProperty("inheritsFrom", gameVersion);
+		profile.addProperty("releaseTime", currentTime);
+		profile.addProperty("time", currentTime);
+		profile.addProperty("type", "release");
+
+		JsonElement mainClassElement = launcherMeta.get("mainClass");
+		profile.addProperty("mainClass", mainClassElement.isJsonObject() ? mainClassElement.getAsJsonObject().get(side).getAsString() : mainClassElement.getAsString());
+
+		JsonObject arguments = new JsonObject();
+		arguments.add("game", new JsonArray());
+
+		if (side.equals("client")) {
+			JsonArray jvmArgs = new JsonArray();
+			jvmArgs.add("-DFabricMcEmu= net.minecraft.client.main.Main ");
+			arguments.add("jvm", jvmArgs);
+		}
+
+		profile.add("arguments", arguments);
+		profile.add("libraries", libraries);
+
+		return profile;
+	}
+
+	private static JsonObject formatLibrary(String mavenPath) {
+		JsonObject ret = new JsonObject();
+		ret.addProperty("name", mavenPath);
+		ret.addProperty("url", Reference.FABRIC_MAVEN_URL);
+		return ret;
+	}
+}
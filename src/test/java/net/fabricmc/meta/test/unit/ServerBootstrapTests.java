@@ -16,11 +16,15 @@
 
 package net.fabricmc.meta.test.unit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import io.javalin.testtools.JavalinTest;
 import okhttp3.Response;
@@ -32,6 +36,8 @@ import net.fabricmc.meta.FabricMeta;
 import net.fabricmc.meta.web.WebServer;
 
 public class ServerBootstrapTests {
+	private static final String JAR_PATH = "/v2/versions/loader/stable/stable/stable/server/jar";
+
 	@TempDir
 	static Path tempDir;
 
@@ -44,11 +50,56 @@ public class ServerBootstrapTests {
 	@Test
 	void serverJar() {
 		JavalinTest.test(WebServer.create(), (server, client) -> {
-			Response response = client.get("/v2/versions/loader/stable/stable/stable/server/jar");
+			Response response = client.get(JAR_PATH);
 			assertEquals(200, response.code());
 			Path jarFile = tempDir.resolve("server.jar");
 			Files.copy(response.body().byteStream(), jarFile);
 			assertTrue(Files.size(jarFile) > 0);
 		});
 	}
+
+	@Test
+	void ranges() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			Response response = client.get(JAR_PATH);
+			assertEquals(200, response.code());
+			assertEquals("bytes", response.header("Accept-Ranges"));
+			String etag = response.header("ETag");
+			byte[] jar = response.body().bytes();
+			int length = jar.length;
+
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=0-9")), jar, 0, 9);
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=10-")), jar, 10, length - 1);
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=-10")), jar, length - 10, length - 1);
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=-" + (length + 10))), jar, 0, length - 1);
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=5-" + (length + 10))), jar, 5, length - 1);
+
+			Response unsatisfiable = client.get(JAR_PATH, req -> req.header("Range", "bytes=" + length + "-"));
+			assertEquals(416, unsatisfiable.code());
+			assertEquals("bytes */" + length, unsatisfiable.header("Content-Range"));
+			assertNull(unsatisfiable.header("ETag"));
+			assertNull(unsatisfiable.header("Cache-Control"));
+
+			// multiple or malformed ranges are ignored
+			assertFull(client.get(JAR_PATH, req -> req.header("Range", "bytes=0-1,5-6")), jar);
+			assertFull(client.get(JAR_PATH, req -> req.header("Range", "bytes=9-0")), jar);
+			assertFull(client.get(JAR_PATH, req -> req.header("Range", "items=0-9")), jar);
+
+			// If-Range needs the current strong ETag
+			assertRange(client.get(JAR_PATH, req -> req.header("Range", "bytes=0-9").header("If-Range", etag)), jar, 0, 9);
+			assertFull(client.get(JAR_PATH, req -> req.header("Range", "bytes=0-9").header("If-Range", "\"other\"")), jar);
+			assertFull(client.get(JAR_PATH, req -> req.header("Range", "bytes=0-9").header("If-Range", "W/" + etag)), jar);
+		});
+	}
+
+	private static void assertRange(Response response, byte[] jar, int start, int end) throws IOException {
+		assertEquals(206, response.code());
+		assertEquals(String.format("bytes %d-%d/%d", start, end, jar.length), response.header("Content-Range"));
+		assertArrayEquals(Arrays.copyOfRange(jar, start, end + 1), response.body().bytes());
+	}
+
+	private static void assertFull(Response response, byte[] jar) throws IOException {
+		assertEquals(200, response.code());
+		assertArrayEquals(jar, response.body().bytes());
+	}
 }
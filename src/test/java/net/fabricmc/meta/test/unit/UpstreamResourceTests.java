@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.utils.UpstreamResource;
+
+public class UpstreamResourceTests {
+	private HttpServer server;
+	private String url;
+	// served by the test server, changed by the tests
+	private volatile int status;
+	private volatile String body;
+	private volatile String etag;
+	private volatile String lastIfNoneMatch;
+
+	@BeforeAll
+	static void beforeAll() {
+		FabricMeta.setupForTesting();
+	}
+
+	@BeforeEach
+	void startServer() throws IOException {
+		status = 200;
+		body = "a";
+		etag = "\"1\"";
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/file", exchange -> {
+			lastIfNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+
+			if (status == 200 && etag.equals(lastIfNoneMatch)) {
+				exchange.getResponseHeaders().set("ETag", etag);
+				exchange.sendResponseHeaders(304, -1);
+			} else {
+				byte[] content = body.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("ETag", etag);
+				exchange.sendResponseHeaders(status, content.length);
+
+				try (OutputStream os = exchange.getResponseBody()) {
+					os.write(content);
+				}
+			}
+
+			exchange.close();
+		});
+		server.start();
+
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/file";
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void conditionalFetch() {
+		UpstreamResource resource = new UpstreamResource(url);
+		assertNull(resource.getContent());
+
+		assertTrue(resource.fetch().join());
+		assertNull(lastIfNoneMatch);
+		assertContent("a", resource);
+
+		// unchanged: 304
+		assertFalse(resource.fetch().join());
+		assertEquals("\"1\"", lastIfNoneMatch);
+		assertContent("a", resource);
+
+		// new validator, same content
+		etag = "\"2\"";
+		assertFalse(resource.fetch().join());
+		assertEquals("\"1\"", lastIfNoneMatch);
+
+		body = "b";
+		etag = "\"3\"";
+		assertTrue(resource.fetch().join());
+		assertContent("b", resource);
+	}
+
+	@Test
+	void rejectInvalidContent() {
+		UpstreamResource resource = new UpstreamResource(url, content -> {
+			if (content[0] != 'a') throw new IOException("invalid");
+		});
+
+		assertTrue(resource.fetch().join());
+
+		body = "b";
+		etag = "\"2\"";
+		assertFailure(resource);
+		assertContent("a", resource);
+
+		// the previous validators are still used
+		body = "a";
+		etag = "\"1\"";
+		assertFalse(resource.fetch().join());
+		assertEquals("\"1\"", lastIfNoneMatch);
+	}
+
+	@Test
+	void rejectErrorStatus() {
+		UpstreamResource resource = new UpstreamResource(url);
+		status = 404;
+		assertFailure(resource);
+		assertNull(resource.getContent());
+
+		status = 200;
+		assertTrue(resource.fetch().join());
+		status = 500;
+		assertFailure(resource);
+		assertContent("a", resource);
+	}
+
+	@Test
+	void setContent() throws IOException {
+		UpstreamResource resource = new UpstreamResource(url);
+		assertTrue(resource.setContent("a".getBytes(StandardCharsets.UTF_8)));
+		assertFalse(resource.setContent("a".getBytes(StandardCharsets.UTF_8)));
+
+		// local content has no validators, so the fetch is unconditional but detects equal content
+		assertFalse(resource.fetch().join());
+		assertNull(lastIfNoneMatch);
+
+		UpstreamResource validated = new UpstreamResource(url, content -> {
+			throw new IOException("invalid");
+		});
+		assertThrows(IOException.class, () -> validated.setContent(new byte[1]));
+		assertNull(validated.getContent());
+	}
+
+	private static void assertContent(String expected, UpstreamResource resource) {
+		assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), resource.getContent());
+	}
+
+	private static void assertFailure(UpstreamResource resource) {
+		CompletionException exc = assertThrows(CompletionException.class, () -> resource.fetch().join());
+		assertInstanceOf(IOException.class, exc.getCause());
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.javalin.testtools.JavalinTest;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.meta.FabricMeta;
+import net.fabricmc.meta.web.WebServer;
+
+public class WebServerTests {
+	@BeforeAll
+	static void beforeAll() {
+		FabricMeta.setupForTesting();
+	}
+
+	@Test
+	void cachedNotModified() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			Response response = client.get("/v2/versions/game");
+			assertEquals(200, response.code());
+			String etag = response.header("ETag");
+			assertNotNull(etag);
+			assertFalse(etag.startsWith("W/"));
+
+			Response conditional = client.get("/v2/versions/game", req -> req.header("If-None-Match", "\"other\", " + etag));
+			assertEquals(304, conditional.code());
+			assertEquals(etag, conditional.header("ETag"));
+			assertEquals("", conditional.body().string());
+		});
+	}
+
+	@Test
+	void dynamicNotModified() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			Response response = client.get("/v2/versions/loader/1.20.4?limit=1");
+			assertEquals(200, response.code());
+			String etag = response.header("ETag");
+			assertNotNull(etag);
+			assertTrue(etag.startsWith("W/")); // compressed on the fly
+
+			Response conditional = client.get("/v2/versions/loader/1.20.4?limit=1", req -> req.header("If-None-Match", etag));
+			assertEquals(304, conditional.code());
+			assertEquals(response.header("Cache-Control"), conditional.header("Cache-Control"));
+			assertNotNull(conditional.header("Vary"));
+
+			assertEquals(200, client.get("/v2/versions/loader/1.20.4?limit=2", req -> req.header("If-None-Match", etag)).code());
+		});
+	}
+
+	@Test
+	void contentEncoding() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			Response identity = client.get("/v2/versions", req -> req.header("Accept-Encoding", "identity"));
+			assertNull(identity.header("Content-Encoding"));
+
+			Response gzip = client.get("/v2/versions", req -> req.header("Accept-Encoding", "deflate;q=0.5, gzip"));
+			assertEquals("gzip", gzip.header("Content-Encoding"));
+			assertNotEquals(identity.header("ETag"), gzip.header("ETag"));
+
+			assertEquals("deflate", client.get("/v2/versions", req -> req.header("Accept-Encoding", "deflate, gzip;q=0.5")).header("Content-Encoding"));
+			assertEquals("gzip", client.get("/v2/versions", req -> req.header("Accept-Encoding", "*;q=0.5")).header("Content-Encoding"));
+			assertNull(client.get("/v2/versions", req -> req.header("Accept-Encoding", "gzip;q=0, deflate;q=0")).header("Content-Encoding"));
+
+			// each encoding is revalidated against its own tag
+			assertEquals(304, client.get("/v2/versions", req -> req.header("Accept-Encoding", "gzip").header("If-None-Match", gzip.header("ETag"))).code());
+			assertEquals(200, client.get("/v2/versions", req -> req.header("Accept-Encoding", "identity").header("If-None-Match", gzip.header("ETag"))).code());
+		});
+	}
+
+	@Test
+	void format() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			assertTrue(client.get("/v2/versions/game").body().string().contains("\n"));
+			assertFalse(client.get("/v2/versions/game?format=compact").body().string().contains("\n"));
+			assertFalse(client.get("/v2/versions/game", req -> req.header("Accept", "application/json; format=compact")).body().string().contains("\n"));
+			assertFalse(client.get("/v2/versions/game", req -> req.header("Accept", "text/html, application/json;FORMAT=\"compact\"")).body().string().contains("\n"));
+
+			// the query parameter takes precedence and isn't treated as a filter by dynamic routes
+			assertTrue(client.get("/v2/versions/game?format=pretty", req -> req.header("Accept", "application/json; format=compact")).body().string().contains("\n"));
+			assertFalse(client.get("/v2/versions/loader/1.20.4?format=compact").body().string().contains("\n"));
+		});
+	}
+
+	@Test
+	void errorNotCacheable() {
+		JavalinTest.test(WebServer.create(), (server, client) -> {
+			Response response = client.get("/v2/versions/loader/1.20.4/0.0.0-invalid");
+			assertEquals(400, response.code());
+			assertNull(response.header("ETag"));
+
+			response = client.get("/v2/versions/loader/1.20.4/0.0.0-invalid/profile/json");
+			assertEquals(400, response.code());
+			assertNull(response.header("ETag"));
+			assertNull(response.header("Cache-Control"));
+		});
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.meta.test.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.meta.utils.ZipTemplate;
+
+public class ZipTemplateTests {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void addEntry() throws IOException {
+		byte[] classData = randomBytes();
+		Path input = createZip(false, classData);
+		Path output = write(input, "fabric-loader-version=0.15.2\ngame-version=1.20.4");
+
+		try (ZipFile zip = new ZipFile(output.toFile())) {
+			assertEquals(List.of("net/fabricmc/Main.class", "META-INF/MANIFEST.MF", "install.properties"), zip.stream().map(ZipEntry::getName).toList());
+			assertArrayEquals(classData, read(zip, "net/fabricmc/Main.class"));
+			assertEquals("fabric-loader-version=0.15.2\ngame-version=1.20.4", new String(read(zip, "install.properties"), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void replaceEntry() throws IOException {
+		byte[] classData = randomBytes();
+		Path input = createZip(true, classData);
+		Path output = write(input, "game-version=1.20.4");
+
+		try (ZipFile zip = new ZipFile(output.toFile())) {
+			assertEquals(List.of("net/fabricmc/Main.class", "META-INF/MANIFEST.MF", "install.properties"), zip.stream().map(ZipEntry::getName).toList());
+			assertArrayEquals(classData, read(zip, "net/fabricmc/Main.class"));
+			assertEquals("game-version=1.20.4", new String(read(zip, "install.properties"), StandardCharsets.UTF_8));
+		}
+	}
+
+	private Path createZip(boolean withProperties, byte[] classData) throws IOException {
+		Path ret = tempDir.resolve("input.jar");
+
+		try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(ret))) {
+			zos.putNextEntry(new ZipEntry("net/fabricmc/Main.class"));
+			zos.write(classData);
+			zos.closeEntry();
+
+			if (withProperties) {
+				zos.putNextEntry(new ZipEntry("install.properties"));
+				zos.write("game-version=old".getBytes(StandardCharsets.UTF_8));
+				zos.closeEntry();
+			}
+
+			zos.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+			zos.write("Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+
+			zos.setComment("comment");
+		}
+
+		return ret;
+	}
+
+	private Path write(Path input, String properties) throws IOException {
+		Path ret = tempDir.resolve("output.jar");
+
+		try (FileChannel in = FileChannel.open(input);
+				FileChannel out = FileChannel.open(ret, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			ZipTemplate.read(in, "install.properties").write(in, out, properties.getBytes(StandardCharsets.UTF_8));
+		}
+
+		return ret;
+	}
+
+	private static byte[] randomBytes() {
+		byte[] ret = new byte[10000];
+		new Random(42).nextBytes(ret);
+		return ret;
+	}
+
+	private static byte[] read(ZipFile zip, String name) throws IOException {
+		try (InputStream is = zip.getInputStream(zip.getEntry(name))) {
+			return is.readAllBytes();
+		}
+	}
+}